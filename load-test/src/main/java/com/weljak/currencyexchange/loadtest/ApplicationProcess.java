@@ -0,0 +1,66 @@
+package com.weljak.currencyexchange.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The application under test, started from its boot jar in a separate JVM and pointed at the NBP stub.
+ */
+class ApplicationProcess implements AutoCloseable {
+    private final Process process;
+    private final String baseUrl;
+
+    private ApplicationProcess(Process process, String baseUrl) {
+        this.process = process;
+        this.baseUrl = baseUrl;
+    }
+
+    static ApplicationProcess start(Path jar, int port, List<String> properties, Path log) throws IOException {
+        List<String> command = new ArrayList<>(List.of("java", "-jar", jar.toString(), "--server.port=" + port));
+        command.addAll(properties);
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        return new ApplicationProcess(process, "http://localhost:" + port);
+    }
+
+    String baseUrl() {
+        return baseUrl;
+    }
+
+    void awaitReady(HttpClient client, Duration timeout) throws InterruptedException {
+        HttpRequest health = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health")).GET().build();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with code " + process.exitValue() + " before becoming ready");
+            }
+            try {
+                if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException ignored) {
+                // not listening yet
+            }
+            Thread.sleep(200);
+        }
+        throw new IllegalStateException("Application did not become ready within " + timeout);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(10, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+    }
+}
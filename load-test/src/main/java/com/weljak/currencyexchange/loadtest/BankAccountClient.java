@@ -0,0 +1,78 @@
+package com.weljak.currencyexchange.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Thin HTTP client for the bank account endpoints.
+ */
+class BankAccountClient {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final byte[] createBody;
+    private final byte[] exchangeBody;
+
+    BankAccountClient(HttpClient client, String baseUrl, BigDecimal initialBalancePLN, BigDecimal amountToExchange) throws IOException {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.createBody = objectMapper.writeValueAsBytes(createForm(initialBalancePLN));
+        this.exchangeBody = objectMapper.writeValueAsBytes(Map.of("exchangeType", "PLN_TO_USD", "amountToExchange", amountToExchange));
+    }
+
+    List<String> createAccounts(int count, BigDecimal initialBalancePLN) throws IOException, InterruptedException {
+        List<Map<String, Object>> forms = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            forms.add(createForm(initialBalancePLN));
+        }
+        HttpResponse<String> response = client.send(post("/bank/account/create/bulk", objectMapper.writeValueAsBytes(forms)), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 201) {
+            throw new IllegalStateException("Bulk account creation failed with status " + response.statusCode() + ": " + response.body());
+        }
+        List<String> ids = new ArrayList<>(count);
+        for (JsonNode account : objectMapper.readTree(response.body())) {
+            ids.add(account.get("id").asText());
+        }
+        return ids;
+    }
+
+    CompletableFuture<HttpResponse<String>> send(Operation operation, String accountId) {
+        HttpRequest request = switch (operation) {
+            case CREATE -> post("/bank/account/create", createBody);
+            case BALANCE -> HttpRequest.newBuilder(URI.create(baseUrl + "/bank/account/" + accountId + "/balance")).GET().build();
+            case EXCHANGE -> post("/bank/account/" + accountId + "/currency/exchange", exchangeBody);
+        };
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    static String createdAccountId(HttpResponse<String> response) {
+        try {
+            return objectMapper.readTree(response.body()).get("id").asText();
+        } catch (IOException exception) {
+            return null;
+        }
+    }
+
+    private HttpRequest post(String path, byte[] body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+    }
+
+    private static Map<String, Object> createForm(BigDecimal initialBalancePLN) {
+        return Map.of("name", "Load", "surname", "Test", "initialBalancePLN", initialBalancePLN);
+    }
+}
@@ -0,0 +1,209 @@
+package com.weljak.currencyexchange.loadtest;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.h2.tools.Server;
+
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Runs the application in clustered mode against a shared H2 TCP server and checks that no exchange is lost or
+ * applied twice when every request goes to a random node. The same closed-loop workload is run against a single
+ * node and against a cluster so the throughput of the two can be compared. It also checks that a client sending
+ * the forwarding header itself is rejected. Exits with a non-zero code when any check fails.
+ */
+public class ClusterCheck {
+    private static final BigDecimal INITIAL_BALANCE_PLN = BigDecimal.valueOf(1000).setScale(2);
+    private static final BigDecimal AMOUNT_TO_EXCHANGE = BigDecimal.ONE.setScale(2);
+    private static final int SEED_BATCH_SIZE = 500;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper().enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+
+    private final Path appJar = Path.of(requiredProperty("loadtest.app-jar"));
+    private final Path reportDir = Path.of(System.getProperty("loadtest.report-dir", "build/load-test"));
+    private final int nodes = intProperty("loadtest.cluster.nodes", 3);
+    private final int firstAppPort = intProperty("loadtest.app-port", 18080);
+    private final int h2Port = intProperty("loadtest.cluster.h2-port", 19092);
+    private final int accounts = intProperty("loadtest.accounts", 600);
+    private final int workers = intProperty("loadtest.cluster.workers", 128);
+    private final Duration duration = Duration.ofSeconds(intProperty("loadtest.duration-seconds", 30));
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    public static void main(String[] args) throws Exception {
+        ClusterCheck check = new ClusterCheck();
+        Files.createDirectories(check.reportDir);
+        Server h2 = Server.createTcpServer("-tcpPort", String.valueOf(check.h2Port), "-ifNotExists").start();
+        try (NbpStubServer stub = NbpStubServer.start(intProperty("loadtest.stub-port", 18090),
+                Duration.ofMillis(intProperty("loadtest.stub-latency-millis", 20)), Duration.ofMillis(intProperty("loadtest.stub-latency-jitter-millis", 5)), 0)) {
+            PhaseResult single = check.runPhase(1, stub);
+            PhaseResult cluster = check.runPhase(check.nodes, stub);
+            single.print(System.out);
+            cluster.print(System.out);
+            System.out.printf("Scaling from 1 to %d nodes: %.2fx%n", check.nodes, cluster.throughputPerSecond() / single.throughputPerSecond());
+            if (single.mismatchedAccounts() > 0 || cluster.mismatchedAccounts() > 0) {
+                System.err.println("Balance check failed");
+                System.exit(1);
+            }
+        } finally {
+            h2.stop();
+        }
+    }
+
+    private PhaseResult runPhase(int nodeCount, NbpStubServer stub) throws Exception {
+        String database = "jdbc:h2:tcp://localhost:" + h2Port + "/mem:cluster" + nodeCount + ";DB_CLOSE_DELAY=-1";
+        String secret = UUID.randomUUID().toString();
+        List<String> members = new ArrayList<>();
+        for (int i = 0; i < nodeCount; i++) {
+            members.add("http://localhost:" + (firstAppPort + i));
+        }
+        List<ApplicationProcess> processes = new ArrayList<>();
+        try {
+            for (int i = 0; i < nodeCount; i++) {
+                ApplicationProcess process = ApplicationProcess.start(appJar, firstAppPort + i, List.of(
+                        "--spring.datasource.url=" + database,
+                        "--spring.jpa.hibernate.ddl-auto=update",
+                        "--nbp.api.usd-rate-url=" + stub.rateUrl(),
+                        "--cluster.enabled=true",
+                        "--cluster.members=" + String.join(",", members),
+                        "--cluster.self=" + members.get(i),
+                        "--cluster.secret=" + secret
+                ), reportDir.resolve("cluster" + nodeCount + "-node" + i + ".log"));
+                processes.add(process);
+                // the first node creates the schema, so the others start only once it is ready
+                process.awaitReady(httpClient, Duration.ofMinutes(2));
+            }
+            List<BankAccountClient> clients = new ArrayList<>();
+            for (ApplicationProcess process : processes) {
+                clients.add(new BankAccountClient(httpClient, process.baseUrl(), INITIAL_BALANCE_PLN, AMOUNT_TO_EXCHANGE));
+            }
+            List<String> ids = seedAccounts(clients);
+            verifySpoofedForwardRejected(processes, ids.get(0));
+            System.out.printf("%d node(s): seeded %d accounts, running %d workers for %s%n", nodeCount, ids.size(), workers, duration);
+            Map<String, LongAdder> completedExchanges = new ConcurrentHashMap<>();
+            Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+            runExchanges(clients, ids, completedExchanges, statuses);
+            int mismatches = verifyBalances(clients, ids, completedExchanges);
+            long completed = completedExchanges.values().stream().mapToLong(LongAdder::sum).sum();
+            Map<Integer, Long> statusCounts = statuses.entrySet().stream()
+                    .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().sum(), Long::sum, TreeMap::new));
+            return new PhaseResult(nodeCount, completed / (duration.toMillis() / 1000.0), statusCounts, mismatches);
+        } finally {
+            for (ApplicationProcess process : processes) {
+                process.close();
+            }
+        }
+    }
+
+    // creates accounts through every node, each node generates ids it owns itself
+    private List<String> seedAccounts(List<BankAccountClient> clients) throws Exception {
+        List<String> ids = new ArrayList<>(accounts);
+        int perNode = accounts / clients.size();
+        for (BankAccountClient client : clients) {
+            for (int created = 0; created < perNode; created += SEED_BATCH_SIZE) {
+                ids.addAll(client.createAccounts(Math.min(SEED_BATCH_SIZE, perNode - created), INITIAL_BALANCE_PLN));
+            }
+        }
+        return ids;
+    }
+
+    private void runExchanges(List<BankAccountClient> clients, List<String> ids, Map<String, LongAdder> completedExchanges,
+                              Map<Integer, LongAdder> statuses) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        long deadline = System.nanoTime() + duration.toNanos();
+        for (int i = 0; i < workers; i++) {
+            executor.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    String id = ids.get(random.nextInt(ids.size()));
+                    BankAccountClient client = clients.get(random.nextInt(clients.size()));
+                    int status;
+                    try {
+                        status = client.send(Operation.EXCHANGE, id).join().statusCode();
+                    } catch (RuntimeException exception) {
+                        status = -1;
+                    }
+                    statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+                    if (status == 200) {
+                        completedExchanges.computeIfAbsent(id, key -> new LongAdder()).increment();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Exchange workers did not finish");
+        }
+    }
+
+    // a client claiming to be a member must not get past ownership routing, whichever node it reaches
+    private void verifySpoofedForwardRejected(List<ApplicationProcess> processes, String id) throws Exception {
+        for (ApplicationProcess process : processes) {
+            HttpRequest spoofed = HttpRequest.newBuilder(URI.create(process.baseUrl() + "/bank/account/" + id + "/balance"))
+                    .header("X-Cluster-Forwarded", process.baseUrl())
+                    .GET()
+                    .build();
+            int status = httpClient.send(spoofed, HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (status != 403) {
+                throw new IllegalStateException("Request with a spoofed forwarding header got status " + status + " from " + process.baseUrl());
+            }
+        }
+    }
+
+    // reads every balance through a random node and compares it with the number of exchanges that returned 200
+    private int verifyBalances(List<BankAccountClient> clients, List<String> ids, Map<String, LongAdder> completedExchanges) throws Exception {
+        int mismatches = 0;
+        for (String id : ids) {
+            BankAccountClient client = clients.get(ThreadLocalRandom.current().nextInt(clients.size()));
+            HttpResponse<String> response = client.send(Operation.BALANCE, id).join();
+            LongAdder completed = completedExchanges.get(id);
+            BigDecimal expected = INITIAL_BALANCE_PLN.subtract(AMOUNT_TO_EXCHANGE.multiply(BigDecimal.valueOf(completed == null ? 0 : completed.sum())));
+            BigDecimal actual = response.statusCode() == 200
+                    ? objectMapper.readTree(response.body()).get("details").get("balancePLN").decimalValue()
+                    : null;
+            if (actual == null || actual.compareTo(expected) != 0) {
+                mismatches++;
+                System.err.printf("Account %s: expected %s PLN, got %s (status %d)%n", id, expected, actual, response.statusCode());
+            }
+        }
+        return mismatches;
+    }
+
+    private static String requiredProperty(String name) {
+        String value = System.getProperty(name);
+        if (value == null) {
+            throw new IllegalArgumentException(name + " must be set");
+        }
+        return value;
+    }
+
+    private static int intProperty(String name, int defaultValue) {
+        return Integer.parseInt(System.getProperty(name, String.valueOf(defaultValue)));
+    }
+
+    private record PhaseResult(int nodes, double throughputPerSecond, Map<Integer, Long> statuses, int mismatchedAccounts) {
+        void print(PrintStream out) {
+            out.printf("%d node(s): %.1f completed exchanges/s, statuses %s, %d accounts with wrong balance%n",
+                    nodes, throughputPerSecond, statuses, mismatchedAccounts);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.weljak.currencyexchange.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Load test settings, read from {@code loadtest.*} system properties so runs are reproducible from the command line.
+ * {@code loadtest.abusive-share} sends that share of the account requests to a single account, to show how the
+ * other, well-behaved accounts fare while one account floods the application.
+ */
+record LoadTestConfig(
+        Path appJar,
+        int appPort,
+        int stubPort,
+        List<String> appArgs,
+        int accounts,
+        int rps,
+        Duration warmup,
+        Duration duration,
+        int maxInFlight,
+        Map<Operation, Integer> mix,
+        double abusiveShare,
+        Duration stubLatency,
+        Duration stubLatencyJitter,
+        double stubErrorRate,
+        long seed,
+        Path reportDir,
+        Path baseline
+) {
+    static LoadTestConfig fromSystemProperties() {
+        String appJar = System.getProperty("loadtest.app-jar");
+        if (appJar == null) {
+            throw new IllegalArgumentException("loadtest.app-jar must point at the application boot jar");
+        }
+        String baseline = System.getProperty("loadtest.baseline");
+        return new LoadTestConfig(
+                Path.of(appJar),
+                intProperty("loadtest.app-port", 18080),
+                intProperty("loadtest.stub-port", 18090),
+                Arrays.stream(System.getProperty("loadtest.app-args", "").split("\\s+")).filter(arg -> !arg.isBlank()).toList(),
+                intProperty("loadtest.accounts", 1000),
+                intProperty("loadtest.rps", 200),
+                Duration.ofSeconds(intProperty("loadtest.warmup-seconds", 10)),
+                Duration.ofSeconds(intProperty("loadtest.duration-seconds", 60)),
+                intProperty("loadtest.max-in-flight", 1000),
+                parseMix(System.getProperty("loadtest.mix", "create=5,balance=70,exchange=25")),
+                parseShare(System.getProperty("loadtest.abusive-share", "0")),
+                Duration.ofMillis(intProperty("loadtest.stub-latency-millis", 50)),
+                Duration.ofMillis(intProperty("loadtest.stub-latency-jitter-millis", 20)),
+                Double.parseDouble(System.getProperty("loadtest.stub-error-rate", "0.0")),
+                Long.parseLong(System.getProperty("loadtest.seed", "42")),
+                Path.of(System.getProperty("loadtest.report-dir", "build/load-test")),
+                baseline != null ? Path.of(baseline) : null
+        );
+    }
+
+    private static int intProperty(String name, int defaultValue) {
+        return Integer.parseInt(System.getProperty(name, String.valueOf(defaultValue)));
+    }
+
+    private static double parseShare(String share) {
+        double value = Double.parseDouble(share);
+        if (value < 0 || value >= 1) {
+            throw new IllegalArgumentException("Abusive share must be at least 0 and below 1: " + share);
+        }
+        return value;
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("Traffic mix must have a positive total weight: " + mix);
+        }
+        return weights;
+    }
+}
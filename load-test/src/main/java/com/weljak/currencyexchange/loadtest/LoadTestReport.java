@@ -0,0 +1,107 @@
+package com.weljak.currencyexchange.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Result of one load test run. Reports are written as JSON so a later run can be compared against them.
+ */
+record LoadTestReport(
+        String startedAt,
+        Map<String, Object> settings,
+        double durationSeconds,
+        double throughputPerSecond,
+        Map<String, OperationSummary> operations,
+        long stubRequests,
+        long stubErrors
+) {
+    private static final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    record OperationSummary(
+            long requests,
+            double throughputPerSecond,
+            double p50Millis,
+            double p90Millis,
+            double p99Millis,
+            double p999Millis,
+            double maxMillis,
+            Map<String, Long> statuses
+    ) {
+    }
+
+    static LoadTestReport from(Instant startedAt, LoadTestConfig config, Map<String, OperationStats> stats, long stubRequests, long stubErrors) {
+        double seconds = config.duration().toMillis() / 1000.0;
+        Map<String, OperationSummary> operations = new LinkedHashMap<>();
+        long total = 0;
+        for (Map.Entry<String, OperationStats> entry : stats.entrySet()) {
+            OperationSummary summary = entry.getValue().summarize(seconds);
+            operations.put(entry.getKey(), summary);
+            total += summary.requests();
+        }
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("accounts", config.accounts());
+        settings.put("targetRps", config.rps());
+        settings.put("mix", config.mix());
+        settings.put("abusiveShare", config.abusiveShare());
+        settings.put("stubLatencyMillis", config.stubLatency().toMillis());
+        settings.put("stubLatencyJitterMillis", config.stubLatencyJitter().toMillis());
+        settings.put("stubErrorRate", config.stubErrorRate());
+        settings.put("seed", config.seed());
+        settings.put("appArgs", config.appArgs());
+        return new LoadTestReport(startedAt.toString(), settings, seconds, total / seconds, operations, stubRequests, stubErrors);
+    }
+
+    static LoadTestReport read(Path file) throws IOException {
+        return objectMapper.readValue(file.toFile(), LoadTestReport.class);
+    }
+
+    Path write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve("report-" + FILE_TIMESTAMP.format(Instant.parse(startedAt)) + ".json");
+        objectMapper.writeValue(file.toFile(), this);
+        return file;
+    }
+
+    void print(PrintStream out) {
+        out.printf("%-18s %10s %10s %10s %10s %10s %10s %10s  %s%n", "operation", "requests", "rps", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "statuses");
+        operations.forEach((operation, summary) -> out.printf("%-18s %10d %10.1f %10.2f %10.2f %10.2f %10.2f %10.2f  %s%n",
+                operation, summary.requests(), summary.throughputPerSecond(), summary.p50Millis(), summary.p90Millis(),
+                summary.p99Millis(), summary.p999Millis(), summary.maxMillis(), summary.statuses()));
+        out.printf("total throughput %.1f rps, NBP stub served %d requests (%d errors)%n", throughputPerSecond, stubRequests, stubErrors);
+    }
+
+    void printComparison(LoadTestReport baseline, PrintStream out) {
+        out.printf("compared with run started %s%n", baseline.startedAt());
+        out.printf("%-18s %12s %12s %12s %12s%n", "operation", "rps", "p50", "p99", "p99.9");
+        operations.forEach((operation, summary) -> {
+            OperationSummary previous = baseline.operations().get(operation);
+            if (previous == null) {
+                return;
+            }
+            out.printf("%-18s %12s %12s %12s %12s%n", operation,
+                    change(previous.throughputPerSecond(), summary.throughputPerSecond()),
+                    change(previous.p50Millis(), summary.p50Millis()),
+                    change(previous.p99Millis(), summary.p99Millis()),
+                    change(previous.p999Millis(), summary.p999Millis()));
+        });
+        out.printf("%-18s %12s%n", "total", change(baseline.throughputPerSecond(), throughputPerSecond));
+    }
+
+    private static String change(double before, double after) {
+        if (before == 0) {
+            return "n/a";
+        }
+        return String.format("%+.1f%%", (after - before) / before * 100);
+    }
+}
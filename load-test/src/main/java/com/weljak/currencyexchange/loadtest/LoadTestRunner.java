@@ -0,0 +1,81 @@
+package com.weljak.currencyexchange.loadtest;
+
+import java.math.BigDecimal;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Starts a local NBP stub and the application, seeds accounts through bulk creation, drives the configured traffic
+ * mix at the target rate and writes a throughput and latency percentile report.
+ */
+public class LoadTestRunner {
+    private static final int SEED_BATCH_SIZE = 500;
+    private static final BigDecimal INITIAL_BALANCE_PLN = BigDecimal.valueOf(1_000_000);
+    private static final BigDecimal AMOUNT_TO_EXCHANGE = BigDecimal.ONE;
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        Files.createDirectories(config.reportDir());
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(clientExecutor)
+                .build();
+        try (NbpStubServer stub = NbpStubServer.start(config.stubPort(), config.stubLatency(), config.stubLatencyJitter(), config.stubErrorRate());
+             ApplicationProcess application = startApplication(config, stub)) {
+            application.awaitReady(httpClient, Duration.ofMinutes(2));
+            BankAccountClient client = new BankAccountClient(httpClient, application.baseUrl(), INITIAL_BALANCE_PLN, AMOUNT_TO_EXCHANGE);
+            List<String> accounts = seedAccounts(client, config.accounts());
+            System.out.printf("Seeded %d accounts%n", accounts.size());
+
+            TrafficGenerator generator = new TrafficGenerator(client, accounts, config);
+            if (!config.warmup().isZero()) {
+                System.out.printf("Warming up for %s%n", config.warmup());
+                generator.run(config.warmup());
+            }
+            long stubRequestsBefore = stub.requests();
+            long stubErrorsBefore = stub.errors();
+            Instant startedAt = Instant.now();
+            System.out.printf("Running %d rps for %s%n", config.rps(), config.duration());
+            if (config.abusiveShare() > 0) {
+                System.out.printf("Sending %.0f%% of account requests to account %s%n", config.abusiveShare() * 100, accounts.get(0));
+            }
+            Map<String, OperationStats> stats = generator.run(config.duration());
+
+            LoadTestReport report = LoadTestReport.from(startedAt, config, stats,
+                    stub.requests() - stubRequestsBefore, stub.errors() - stubErrorsBefore);
+            Path file = report.write(config.reportDir());
+            report.print(System.out);
+            System.out.printf("Report written to %s%n", file);
+            if (config.baseline() != null) {
+                report.printComparison(LoadTestReport.read(config.baseline()), System.out);
+            }
+        } finally {
+            clientExecutor.shutdownNow();
+        }
+    }
+
+    private static ApplicationProcess startApplication(LoadTestConfig config, NbpStubServer stub) throws Exception {
+        List<String> properties = new ArrayList<>();
+        properties.add("--nbp.api.usd-rate-url=" + stub.rateUrl());
+        properties.addAll(config.appArgs());
+        return ApplicationProcess.start(config.appJar(), config.appPort(), properties, config.reportDir().resolve("application.log"));
+    }
+
+    private static List<String> seedAccounts(BankAccountClient client, int count) throws Exception {
+        List<String> accounts = Collections.synchronizedList(new ArrayList<>(count));
+        for (int created = 0; created < count; created += SEED_BATCH_SIZE) {
+            accounts.addAll(client.createAccounts(Math.min(SEED_BATCH_SIZE, count - created), INITIAL_BALANCE_PLN));
+        }
+        return accounts;
+    }
+}
@@ -0,0 +1,107 @@
+package com.weljak.currencyexchange.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local stand-in for api.nbp.pl serving a fixed USD rate table in the ExchangeRateDetailsDto shape, with
+ * configurable latency and a configurable share of 503 responses.
+ */
+class NbpStubServer implements AutoCloseable {
+    static final String RATE_PATH = "/api/exchangerates/rates/c/usd";
+
+    private static final byte[] RATE_BODY = """
+            {
+                "table": "C",
+                "currency": "dolar amerykański",
+                "code": "USD",
+                "rates": [
+                    {
+                        "no": "205/C/NBP/2023",
+                        "effectiveDate": "2023-10-23",
+                        "bid": 4.1640,
+                        "ask": 4.2482
+                    }
+                ]
+            }
+            """.getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Duration latency;
+    private final Duration latencyJitter;
+    private final double errorRate;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    private NbpStubServer(HttpServer server, ExecutorService executor, Duration latency, Duration latencyJitter, double errorRate) {
+        this.server = server;
+        this.executor = executor;
+        this.latency = latency;
+        this.latencyJitter = latencyJitter;
+        this.errorRate = errorRate;
+    }
+
+    static NbpStubServer start(int port, Duration latency, Duration latencyJitter, double errorRate) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        NbpStubServer stub = new NbpStubServer(server, executor, latency, latencyJitter, errorRate);
+        server.createContext(RATE_PATH, stub::handle);
+        server.setExecutor(executor);
+        server.start();
+        return stub;
+    }
+
+    String rateUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + RATE_PATH;
+    }
+
+    long requests() {
+        return requests.sum();
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            requests.increment();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long delayMillis = latency.toMillis() + (latencyJitter.isZero() ? 0 : random.nextLong(latencyJitter.toMillis() + 1));
+            if (delayMillis > 0) {
+                Thread.sleep(delayMillis);
+            }
+            if (random.nextDouble() < errorRate) {
+                errors.increment();
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, RATE_BODY.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(RATE_BODY);
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+}
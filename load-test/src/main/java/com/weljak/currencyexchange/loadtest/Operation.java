@@ -0,0 +1,7 @@
+package com.weljak.currencyexchange.loadtest;
+
+enum Operation {
+    CREATE,
+    BALANCE,
+    EXCHANGE
+}
@@ -0,0 +1,59 @@
+package com.weljak.currencyexchange.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Latencies and response statuses of one operation type. Latencies are measured from the scheduled send time, so
+ * queueing in the client while the application stalls is counted rather than hidden.
+ */
+class OperationStats {
+    private long[] latenciesMicros = new long[4096];
+    private int count;
+    private final Map<String, Long> statuses = new TreeMap<>();
+
+    synchronized void record(long latencyNanos, int status) {
+        add(latencyNanos);
+        statuses.merge(String.valueOf(status), 1L, Long::sum);
+    }
+
+    synchronized void recordFailure(long latencyNanos, String reason) {
+        add(latencyNanos);
+        statuses.merge(reason, 1L, Long::sum);
+    }
+
+    synchronized void recordDropped() {
+        statuses.merge("dropped", 1L, Long::sum);
+    }
+
+    synchronized LoadTestReport.OperationSummary summarize(double seconds) {
+        long[] sorted = Arrays.copyOf(latenciesMicros, count);
+        Arrays.sort(sorted);
+        return new LoadTestReport.OperationSummary(
+                count,
+                count / seconds,
+                percentileMillis(sorted, 0.50),
+                percentileMillis(sorted, 0.90),
+                percentileMillis(sorted, 0.99),
+                percentileMillis(sorted, 0.999),
+                count == 0 ? 0 : sorted[count - 1] / 1000.0,
+                new TreeMap<>(statuses)
+        );
+    }
+
+    private void add(long latencyNanos) {
+        if (count == latenciesMicros.length) {
+            latenciesMicros = Arrays.copyOf(latenciesMicros, count * 2);
+        }
+        latenciesMicros[count++] = latencyNanos / 1000;
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(sorted.length * percentile) - 1;
+        return sorted[Math.max(0, index)] / 1000.0;
+    }
+}
@@ -0,0 +1,92 @@
+package com.weljak.currencyexchange.loadtest;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Open-loop traffic source: requests are scheduled at a fixed rate regardless of how fast the application answers,
+ * up to a cap on requests in flight. Requests over the cap are counted as dropped. With a positive abusive share,
+ * that share of the balance and exchange requests goes to the first seeded account and is reported separately,
+ * under the operation name with an {@value #ABUSIVE_SUFFIX} suffix.
+ */
+class TrafficGenerator {
+    static final String ABUSIVE_SUFFIX = "/abusive";
+
+    private final BankAccountClient client;
+    private final List<String> accounts;
+    private final int rps;
+    private final int maxInFlight;
+    private final Operation[] weightedOperations;
+    private final double abusiveShare;
+    private final String abusiveAccount;
+    private final Random random;
+
+    TrafficGenerator(BankAccountClient client, List<String> accounts, LoadTestConfig config) {
+        this.client = client;
+        this.accounts = accounts;
+        this.rps = config.rps();
+        this.maxInFlight = config.maxInFlight();
+        this.random = new Random(config.seed());
+        this.weightedOperations = config.mix().entrySet().stream()
+                .flatMap(entry -> Stream.generate(entry::getKey).limit(entry.getValue()))
+                .toArray(Operation[]::new);
+        this.abusiveShare = config.abusiveShare();
+        this.abusiveAccount = abusiveShare > 0 ? accounts.get(0) : null;
+    }
+
+    Map<String, OperationStats> run(Duration duration) throws InterruptedException {
+        Map<String, OperationStats> stats = new LinkedHashMap<>();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rps;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        for (long scheduled = start; scheduled < end; scheduled += intervalNanos) {
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = weightedOperations[random.nextInt(weightedOperations.length)];
+            boolean abusive = operation != Operation.CREATE && abusiveAccount != null && random.nextDouble() < abusiveShare;
+            OperationStats operationStats = stats.computeIfAbsent(abusive ? operation.name() + ABUSIVE_SUFFIX : operation.name(), name -> new OperationStats());
+            if (!inFlight.tryAcquire()) {
+                operationStats.recordDropped();
+                continue;
+            }
+            long sentAt = scheduled;
+            client.send(operation, abusive ? abusiveAccount : randomAccount()).whenComplete((response, error) -> {
+                long latency = System.nanoTime() - sentAt;
+                if (error != null) {
+                    operationStats.recordFailure(latency, error.getClass().getSimpleName());
+                } else {
+                    operationStats.record(latency, response.statusCode());
+                    if (operation == Operation.CREATE && response.statusCode() == 201) {
+                        String id = BankAccountClient.createdAccountId(response);
+                        if (id != null) {
+                            accounts.add(id);
+                        }
+                    }
+                }
+                inFlight.release();
+            });
+        }
+        if (!inFlight.tryAcquire(maxInFlight, 60, TimeUnit.SECONDS)) {
+            System.err.println("Some requests were still in flight 60 seconds after the run ended");
+        }
+        return stats;
+    }
+
+    // the abusive account is the first one, so well-behaved requests never pick it
+    private String randomAccount() {
+        synchronized (accounts) {
+            int first = abusiveAccount != null ? 1 : 0;
+            return accounts.get(first + random.nextInt(accounts.size() - first));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+#!/usr/bin/env bash
+# Measures time from JVM launch to the first successful request (account creation returning 201) for the default
+# launch mode and for the fast startup mode (Spring AOT + AppCDS archive).
+# Usage: scripts/startup-benchmark.sh [runs] [port]
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${2:-18080}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+cd "$ROOT"
+
+sh ./gradlew -q bootJar
+DEFAULT_JAR=$(ls build/libs/*-SNAPSHOT.jar | grep -v plain | head -n 1)
+cp "$DEFAULT_JAR" build/default-mode.jar
+sh ./gradlew -q -PfastStartup cdsArchive
+
+now_ms() {
+  date +%s%3N
+}
+
+time_to_first_request() {
+  local start pid elapsed
+  start=$(now_ms)
+  "$@" --server.port="$PORT" > /dev/null 2>&1 &
+  pid=$!
+  until [ "$(curl -s -o /dev/null -w '%{http_code}' -X POST -H 'Content-Type: application/json' \
+      -d '{"name":"John","surname":"Doe","initialBalancePLN":100}' \
+      "http://localhost:$PORT/bank/account/create")" = "201" ]; do
+    if ! kill -0 "$pid" 2> /dev/null; then
+      echo "application exited before serving a request" >&2
+      return 1
+    fi
+    sleep 0.02
+  done
+  elapsed=$(( $(now_ms) - start ))
+  kill "$pid"
+  wait "$pid" 2> /dev/null || true
+  echo "$elapsed"
+}
+
+report() {
+  local mode=$1
+  shift
+  local results=()
+  for _ in $(seq "$RUNS"); do
+    results+=("$(time_to_first_request "$@")")
+  done
+  sorted=$(printf '%s\n' "${results[@]}" | sort -n)
+  printf '%-8s runs=%d min=%sms median=%sms max=%sms\n' "$mode" "$RUNS" \
+    "$(echo "$sorted" | head -n 1)" \
+    "$(echo "$sorted" | sed -n "$(( (RUNS + 1) / 2 ))p")" \
+    "$(echo "$sorted" | tail -n 1)"
+}
+
+report default java -jar build/default-mode.jar
+(cd build/cds && report fast java -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -jar application.jar)
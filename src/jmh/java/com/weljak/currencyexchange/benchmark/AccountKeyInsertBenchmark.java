@@ -0,0 +1,113 @@
+package com.weljak.currencyexchange.benchmark;
+
+import com.weljak.currencyexchange.util.TimeOrderedUuidGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Inserts {@code rows} accounts into a fresh file-backed H2 database, keyed either by the previous VARCHAR(36)
+ * random UUIDs or by the current 16-byte time-ordered UUIDs, and prints the disk space used by the table and its
+ * primary key index afterwards. Each iteration is a single shot, so the score is the time for all rows. The row
+ * count defaults to 100k, which keeps ./gradlew jmh (whose global iteration settings override the annotations
+ * below) within seconds; the 10M comparison is run once from the benchmark jar:
+ *   ./gradlew jmhJar
+ *   java -jar build/libs/currency-exchange-0.0.1-SNAPSHOT-jmh.jar AccountKeyInsertBenchmark -p rows=10000000
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(1)
+public class AccountKeyInsertBenchmark {
+    private static final int BATCH_SIZE = 1000;
+    private static final BigDecimal BALANCE = new BigDecimal("1000.00");
+
+    public enum KeyLayout {
+        STRING_V4("VARCHAR(36)"),
+        BINARY_V7("UUID");
+
+        private final String columnType;
+
+        KeyLayout(String columnType) {
+            this.columnType = columnType;
+        }
+    }
+
+    @Param({"STRING_V4", "BINARY_V7"})
+    public KeyLayout keyLayout;
+
+    @Param({"100000"})
+    public int rows;
+
+    private Path directory;
+    private Connection connection;
+
+    @Setup(Level.Iteration)
+    public void createDatabase() throws IOException, SQLException {
+        directory = Files.createTempDirectory("account-key-benchmark");
+        connection = DriverManager.getConnection("jdbc:h2:file:" + directory.resolve("bench").toAbsolutePath());
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE bank_account (" +
+                    "uuid " + keyLayout.columnType + " NOT NULL PRIMARY KEY, " +
+                    "name VARCHAR(255) NOT NULL, " +
+                    "surname VARCHAR(255) NOT NULL, " +
+                    "pln_balance NUMERIC(38, 2) NOT NULL, " +
+                    "usd_balance NUMERIC(38, 2) NOT NULL, " +
+                    "version BIGINT NOT NULL)");
+        }
+        connection.commit();
+    }
+
+    @Benchmark
+    public int insertAccounts() throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO bank_account (uuid, name, surname, pln_balance, usd_balance, version) VALUES (?, ?, ?, ?, ?, 0)")) {
+            for (int i = 1; i <= rows; i++) {
+                if (keyLayout == KeyLayout.STRING_V4) {
+                    insert.setString(1, UUID.randomUUID().toString());
+                } else {
+                    insert.setObject(1, TimeOrderedUuidGenerator.next());
+                }
+                insert.setString(2, "John");
+                insert.setString(3, "Doe");
+                insert.setBigDecimal(4, BALANCE);
+                insert.setBigDecimal(5, BigDecimal.ZERO);
+                insert.addBatch();
+                if (i % BATCH_SIZE == 0 || i == rows) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+        }
+        return rows;
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportSizeAndDropDatabase() throws IOException, SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet diskSpace = statement.executeQuery("SELECT DISK_SPACE_USED('BANK_ACCOUNT')")) {
+            diskSpace.next();
+            System.out.printf("%n%s, %d rows: table and primary key index use %d bytes%n", keyLayout, rows, diskSpace.getLong(1));
+        }
+        connection.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.weljak.currencyexchange.benchmark;
+
+import com.weljak.currencyexchange.monitoring.ExchangeCurrencyEvent;
+import com.weljak.currencyexchange.monitoring.NbpRateFetchEvent;
+import jdk.jfr.Recording;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call cost of the flight recorder events emitted by exchangeCurrency, with no recording running (the permanent
+ * state in production) and with a recording that has the events enabled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ExchangeEventOverheadBenchmark {
+    private static final String ACCOUNT_ID = "018b5e4a-7c1e-7a3b-9f2d-4e5a6b7c8d9e";
+
+    @Param({"false", "true"})
+    public boolean recording;
+
+    private Recording activeRecording;
+
+    @Setup
+    public void startRecording() {
+        if (recording) {
+            activeRecording = new Recording();
+            activeRecording.enable(ExchangeCurrencyEvent.class);
+            activeRecording.enable(NbpRateFetchEvent.class);
+            activeRecording.start();
+        }
+    }
+
+    @TearDown
+    public void stopRecording() {
+        if (activeRecording != null) {
+            activeRecording.close();
+        }
+    }
+
+    @Benchmark
+    public void exchangeEvent() {
+        ExchangeCurrencyEvent event = new ExchangeCurrencyEvent();
+        event.start(ACCOUNT_ID, "PLN_TO_USD");
+        event.accountLoaded();
+        event.rateFetched();
+        event.calculated();
+        event.saved();
+        event.finish("COMPLETED");
+    }
+
+    @Benchmark
+    public void nbpRateFetchEvent() {
+        NbpRateFetchEvent event = new NbpRateFetchEvent();
+        event.begin();
+        event.statusCode = 200;
+        if (event.shouldCommit()) {
+            event.url = "https://api.nbp.pl/api/exchangerates/rates/c/usd";
+            event.commit();
+        }
+    }
+}
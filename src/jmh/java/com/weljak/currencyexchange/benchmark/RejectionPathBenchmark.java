@@ -0,0 +1,128 @@
+package com.weljak.currencyexchange.benchmark;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.weljak.currencyexchange.domain.model.exception.InsufficientFundsException;
+import com.weljak.currencyexchange.util.RateLimitedLogger;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.helpers.NOPLogger;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of rejecting a request with a business exception thrown from a realistic call depth: the previous exception
+ * type with a captured stack trace against the stackless one, and the rate-limited log call made by ControllerAdvice.
+ * rejectOldPath is the whole rejection as it was before, a stack-traced exception followed by an ERROR line that
+ * logback formats with the default console pattern and writes to a discarding stream, and rejectNewPath is the
+ * stackless exception followed by the rate-limited warning on the same appender.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RejectionPathBenchmark {
+    private static final int CALL_DEPTH = 60;
+
+    private static final String REQUEST_URI = "/bank/account/balance";
+
+    private final RateLimitedLogger rateLimitedLogger = new RateLimitedLogger(NOPLogger.NOP_LOGGER, 10);
+
+    private LoggerContext loggerContext;
+    private Logger appenderLogger;
+    private RateLimitedLogger rateLimitedAppenderLogger;
+
+    @Setup
+    public void setup() {
+        loggerContext = new LoggerContext();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p %t --- %logger{39} : %m%n");
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(loggerContext);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+        appenderLogger = loggerContext.getLogger("com.weljak.currencyexchange.webapi.ControllerAdvice");
+        appenderLogger.addAppender(appender);
+        rateLimitedAppenderLogger = new RateLimitedLogger(appenderLogger, 10);
+    }
+
+    @TearDown
+    public void teardown() {
+        loggerContext.stop();
+    }
+
+    @Benchmark
+    public String rejectWithStackTrace() {
+        try {
+            throwAtDepth(CALL_DEPTH, true);
+            return null;
+        } catch (RuntimeException exception) {
+            return exception.getMessage();
+        }
+    }
+
+    @Benchmark
+    public String rejectStackless() {
+        try {
+            throwAtDepth(CALL_DEPTH, false);
+            return null;
+        } catch (RuntimeException exception) {
+            return exception.getMessage();
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String rejectOldPath() {
+        try {
+            throwAtDepth(CALL_DEPTH, true);
+            return null;
+        } catch (RuntimeException exception) {
+            appenderLogger.error("Error occurred for request: {}", REQUEST_URI);
+            return exception.getMessage();
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String rejectNewPath() {
+        try {
+            throwAtDepth(CALL_DEPTH, false);
+            return null;
+        } catch (RuntimeException exception) {
+            rateLimitedAppenderLogger.warn("{} for request: {}", exception.getMessage(), REQUEST_URI);
+            return exception.getMessage();
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void rateLimitedLog() {
+        rateLimitedLogger.warn("{} for request: {}", "Account not found", REQUEST_URI);
+    }
+
+    private static void throwAtDepth(int depth, boolean withStackTrace) {
+        if (depth > 0) {
+            throwAtDepth(depth - 1, withStackTrace);
+            return;
+        }
+        if (withStackTrace) {
+            throw new StackTracedInsufficientFundsException("Not enough funds on account to exchange currency");
+        }
+        throw new InsufficientFundsException("Not enough funds on account to exchange currency");
+    }
+
+    /**
+     * Same shape as InsufficientFundsException before it became stackless.
+     */
+    private static class StackTracedInsufficientFundsException extends RuntimeException {
+        StackTracedInsufficientFundsException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.weljak.currencyexchange.cluster;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A request whose body was read up front, at most {@code maxBodyBytes} of it, so it can be checked before the
+ * handler reads it again. A larger body is not kept, {@link #isWithinLimit()} tells the two apart.
+ */
+class BufferedBodyRequest extends HttpServletRequestWrapper {
+    private final byte[] body;
+    private final boolean withinLimit;
+
+    private BufferedBodyRequest(HttpServletRequest request, byte[] body, boolean withinLimit) {
+        super(request);
+        this.body = body;
+        this.withinLimit = withinLimit;
+    }
+
+    static BufferedBodyRequest read(HttpServletRequest request, int maxBodyBytes) throws IOException {
+        if (request.getContentLengthLong() > maxBodyBytes) {
+            return new BufferedBodyRequest(request, new byte[0], false);
+        }
+        byte[] body = request.getInputStream().readNBytes(maxBodyBytes + 1);
+        return body.length > maxBodyBytes
+                ? new BufferedBodyRequest(request, new byte[0], false)
+                : new BufferedBodyRequest(request, body, true);
+    }
+
+    boolean isWithinLimit() {
+        return withinLimit;
+    }
+
+    byte[] body() {
+        return body;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        ByteArrayInputStream input = new ByteArrayInputStream(body);
+        return new ServletInputStream() {
+            @Override
+            public boolean isFinished() {
+                return input.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                throw new UnsupportedOperationException("Buffered request bodies are read synchronously");
+            }
+
+            @Override
+            public int read() {
+                return input.read();
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) {
+                return input.read(buffer, offset, length);
+            }
+        };
+    }
+
+    @Override
+    public BufferedReader getReader() {
+        Charset charset = getCharacterEncoding() == null ? StandardCharsets.UTF_8 : Charset.forName(getCharacterEncoding());
+        return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+    }
+}
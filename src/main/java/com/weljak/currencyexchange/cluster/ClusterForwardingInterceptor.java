@@ -0,0 +1,202 @@
+package com.weljak.currencyexchange.cluster;
+
+import com.weljak.currencyexchange.domain.model.exception.ClusterAuthenticationException;
+import com.weljak.currencyexchange.domain.model.exception.ClusterNodeUnavailableException;
+import com.weljak.currencyexchange.domain.model.exception.RequestBodyTooLargeException;
+import com.weljak.currencyexchange.webapi.request.BankAccountRequestValidator;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends requests for accounts owned by another node to that node and copies its response back, so all operations
+ * on one account run on a single node. Forwarded requests are marked with {@link #FORWARDED_HEADER} and are always
+ * handled where they arrive, which keeps a request from bouncing between nodes with different member lists. The
+ * marker is only trusted together with a {@link #SIGNATURE_HEADER} made with {@code cluster.secret} by a member;
+ * a request carrying the marker without a valid signature is rejected with 403. The signature covers a digest of
+ * the body, which {@link ForwardedRequestBodyFilter} buffers for the check. Bodies are forwarded and accepted up to
+ * {@code cluster.forward.max-body-bytes}, larger ones are rejected with 413.
+ */
+@Slf4j
+@Component
+public class ClusterForwardingInterceptor implements HandlerInterceptor, MeterBinder {
+    public static final String FORWARDED_HEADER = "X-Cluster-Forwarded";
+    public static final String SIGNATURE_HEADER = "X-Cluster-Signature";
+
+    private static final String ACCOUNT_ID_VARIABLE = "id";
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+            "connection", "keep-alive", "transfer-encoding", "te", "trailer", "upgrade", "host", "content-length");
+
+    private final ClusterTopology clusterTopology;
+    private final RestTemplate restTemplate;
+    private final ClusterRequestSigner signer;
+    private final int maxBodyBytes;
+
+    private final LongAdder forwarded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public ClusterForwardingInterceptor(ClusterTopology clusterTopology,
+                                        @Value("${cluster.secret:}") String secret,
+                                        @Value("${cluster.forward.signature-max-age-millis:30000}") long signatureMaxAgeMillis,
+                                        @Value("${cluster.forward.connect-timeout-millis:1000}") long connectTimeoutMillis,
+                                        @Value("${cluster.forward.read-timeout-millis:10000}") long readTimeoutMillis,
+                                        @Value("${cluster.forward.max-body-bytes:65536}") int maxBodyBytes) {
+        if (clusterTopology.isEnabled() && secret.isBlank()) {
+            throw new IllegalStateException("cluster.secret must be set when cluster.enabled is true");
+        }
+        this.clusterTopology = clusterTopology;
+        this.signer = secret.isBlank() ? null : new ClusterRequestSigner(secret, Duration.ofMillis(signatureMaxAgeMillis));
+        this.maxBodyBytes = maxBodyBytes;
+        this.restTemplate = new RestTemplateBuilder()
+                .setConnectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .setReadTimeout(Duration.ofMillis(readTimeoutMillis))
+                .errorHandler(new PassThroughErrorHandler())
+                .build();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (!clusterTopology.isEnabled()) {
+            return true;
+        }
+        String sender = request.getHeader(FORWARDED_HEADER);
+        if (sender != null) {
+            BufferedBodyRequest buffered = WebUtils.getNativeRequest(request, BufferedBodyRequest.class);
+            if (buffered != null && !buffered.isWithinLimit()) {
+                throw new RequestBodyTooLargeException("Forwarded request body too large");
+            }
+            if (buffered == null || !isSignedByMember(sender, request, buffered.body())) {
+                rejected.increment();
+                throw new ClusterAuthenticationException("Forwarded request not authenticated");
+            }
+            return true;
+        }
+        UUID id = accountIdOf(request);
+        if (id == null) {
+            return true;
+        }
+        String owner = clusterTopology.ownerOf(id);
+        if (owner.equals(clusterTopology.self())) {
+            return true;
+        }
+        forward(owner, request, response);
+        return false;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cluster.requests.forwarded", forwarded, LongAdder::sum)
+                .tag("outcome", "success")
+                .register(registry);
+        FunctionCounter.builder("cluster.requests.forwarded", failed, LongAdder::sum)
+                .tag("outcome", "owner_unavailable")
+                .register(registry);
+        FunctionCounter.builder("cluster.requests.forwarded", rejected, LongAdder::sum)
+                .tag("outcome", "not_authenticated")
+                .register(registry);
+    }
+
+    private boolean isSignedByMember(String sender, HttpServletRequest request, byte[] body) {
+        String signature = request.getHeader(SIGNATURE_HEADER);
+        return signature != null
+                && clusterTopology.isMember(sender)
+                && signer.verify(sender, request.getMethod(), pathOf(request), body, signature, System.currentTimeMillis());
+    }
+
+    private void forward(String owner, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        URI uri = UriComponentsBuilder.fromHttpUrl(owner)
+                .path(request.getRequestURI())
+                .query(request.getQueryString())
+                .build(true)
+                .toUri();
+        BufferedBodyRequest buffered = BufferedBodyRequest.read(request, maxBodyBytes);
+        if (!buffered.isWithinLimit()) {
+            throw new RequestBodyTooLargeException("Request body too large to forward");
+        }
+        byte[] body = buffered.body();
+        try {
+            restTemplate.execute(uri, HttpMethod.valueOf(request.getMethod()), outgoing -> {
+                copyRequestHeaders(request, outgoing.getHeaders());
+                outgoing.getHeaders().set(FORWARDED_HEADER, clusterTopology.self());
+                outgoing.getHeaders().set(SIGNATURE_HEADER,
+                        signer.sign(clusterTopology.self(), request.getMethod(), pathOf(request), body, System.currentTimeMillis()));
+                // writing a body turns a GET into a POST with HttpURLConnection, so only write one if there is one
+                if (body.length > 0) {
+                    outgoing.getBody().write(body);
+                }
+            }, incoming -> {
+                copyResponse(incoming, response);
+                return null;
+            });
+            forwarded.increment();
+        } catch (ResourceAccessException exception) {
+            failed.increment();
+            log.error("Forwarding {} {} to {} failed: {}", request.getMethod(), request.getRequestURI(), owner, exception.getMessage());
+            throw new ClusterNodeUnavailableException("Owner node unavailable");
+        }
+    }
+
+    private static void copyRequestHeaders(HttpServletRequest request, HttpHeaders headers) {
+        for (String name : Collections.list(request.getHeaderNames())) {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase())) {
+                headers.addAll(name, Collections.list(request.getHeaders(name)));
+            }
+        }
+    }
+
+    private static void copyResponse(ClientHttpResponse incoming, HttpServletResponse response) throws IOException {
+        response.setStatus(incoming.getStatusCode().value());
+        incoming.getHeaders().forEach((name, values) -> {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase())) {
+                values.forEach(value -> response.addHeader(name, value));
+            }
+        });
+        incoming.getBody().transferTo(response.getOutputStream());
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getQueryString() == null ? request.getRequestURI() : request.getRequestURI() + "?" + request.getQueryString();
+    }
+
+    private static UUID accountIdOf(HttpServletRequest request) {
+        if (request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE) instanceof Map<?, ?> variables
+                && variables.get(ACCOUNT_ID_VARIABLE) instanceof String id
+                && BankAccountRequestValidator.validateId(id)) {
+            return UUID.fromString(id);
+        }
+        return null;
+    }
+
+    private static class PassThroughErrorHandler extends DefaultResponseErrorHandler {
+        @Override
+        public boolean hasError(ClientHttpResponse response) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.weljak.currencyexchange.cluster;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+
+/**
+ * Signs forwarded requests with an HMAC of the sending member, the time of forwarding, the method, the path and a
+ * SHA-256 digest of the body under the shared cluster secret. A signature is accepted only within {@code maxAge} of being made, which limits
+ * how long a captured one can be replayed.
+ */
+class ClusterRequestSigner {
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String BODY_DIGEST_ALGORITHM = "SHA-256";
+
+    private final SecretKeySpec key;
+    private final long maxAgeMillis;
+
+    ClusterRequestSigner(String secret, Duration maxAge) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.maxAgeMillis = maxAge.toMillis();
+    }
+
+    String sign(String sender, String method, String path, byte[] body, long nowMillis) {
+        return nowMillis + ":" + HexFormat.of().formatHex(mac(sender, method, path, body, nowMillis));
+    }
+
+    boolean verify(String sender, String method, String path, byte[] body, String signature, long nowMillis) {
+        int separator = signature.indexOf(':');
+        if (separator <= 0) {
+            return false;
+        }
+        long signedAtMillis;
+        byte[] received;
+        try {
+            signedAtMillis = Long.parseLong(signature.substring(0, separator));
+            received = HexFormat.of().parseHex(signature.substring(separator + 1));
+        } catch (IllegalArgumentException exception) {
+            return false;
+        }
+        if (Math.abs(nowMillis - signedAtMillis) > maxAgeMillis) {
+            return false;
+        }
+        return MessageDigest.isEqual(mac(sender, method, path, body, signedAtMillis), received);
+    }
+
+    private byte[] mac(String sender, String method, String path, byte[] body, long signedAtMillis) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            mac.update((sender + '\n' + signedAtMillis + '\n' + method + '\n' + path + '\n').getBytes(StandardCharsets.UTF_8));
+            mac.update(MessageDigest.getInstance(BODY_DIGEST_ALGORITHM).digest(body));
+            return mac.doFinal();
+        } catch (NoSuchAlgorithmException | InvalidKeyException exception) {
+            throw new IllegalStateException("Could not sign cluster request", exception);
+        }
+    }
+}
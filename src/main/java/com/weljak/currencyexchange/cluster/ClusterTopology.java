@@ -0,0 +1,69 @@
+package com.weljak.currencyexchange.cluster;
+
+import com.weljak.currencyexchange.util.ConsistentHashRing;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Static cluster membership. With {@code cluster.enabled=true} every account id is owned by exactly one member of
+ * {@code cluster.members}, chosen by consistent hashing; {@code cluster.self} names this node in that list. With
+ * clustering disabled this node owns every account.
+ */
+@Slf4j
+@Component
+public class ClusterTopology {
+    private final boolean enabled;
+    private final String self;
+    private final Set<String> members;
+    private final ConsistentHashRing ring;
+
+    public ClusterTopology(@Value("${cluster.enabled:false}") boolean enabled,
+                           @Value("${cluster.members:}") List<String> members,
+                           @Value("${cluster.self:}") String self,
+                           @Value("${cluster.virtual-nodes:128}") int virtualNodes) {
+        this.enabled = enabled;
+        this.self = normalize(self);
+        if (!enabled) {
+            this.members = Set.of();
+            this.ring = null;
+            return;
+        }
+        List<String> normalizedMembers = members.stream().map(ClusterTopology::normalize).distinct().toList();
+        if (!normalizedMembers.contains(this.self)) {
+            throw new IllegalStateException("cluster.self " + self + " is not one of cluster.members " + members);
+        }
+        this.members = Set.copyOf(normalizedMembers);
+        this.ring = new ConsistentHashRing(normalizedMembers, virtualNodes);
+        log.info("Cluster mode enabled as {} with members {}", this.self, normalizedMembers);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String self() {
+        return self;
+    }
+
+    public boolean isMember(String member) {
+        return members.contains(normalize(member));
+    }
+
+    public String ownerOf(UUID id) {
+        return enabled ? ring.owner(id) : self;
+    }
+
+    public boolean isLocal(UUID id) {
+        return !enabled || ring.owner(id).equals(self);
+    }
+
+    private static String normalize(String member) {
+        String trimmed = member.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+}
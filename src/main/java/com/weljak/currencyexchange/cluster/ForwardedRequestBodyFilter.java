@@ -0,0 +1,37 @@
+package com.weljak.currencyexchange.cluster;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Buffers the body of requests forwarded by another member, so {@link ClusterForwardingInterceptor} can check the
+ * body digest in their signature before the controller reads the body.
+ */
+@Component
+public class ForwardedRequestBodyFilter extends OncePerRequestFilter {
+    private final ClusterTopology clusterTopology;
+    private final int maxBodyBytes;
+
+    public ForwardedRequestBodyFilter(ClusterTopology clusterTopology,
+                                      @Value("${cluster.forward.max-body-bytes:65536}") int maxBodyBytes) {
+        this.clusterTopology = clusterTopology;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !clusterTopology.isEnabled() || request.getHeader(ClusterForwardingInterceptor.FORWARDED_HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        filterChain.doFilter(BufferedBodyRequest.read(request, maxBodyBytes), response);
+    }
+}
@@ -0,0 +1,23 @@
+package com.weljak.currencyexchange.config;
+
+import com.weljak.currencyexchange.cluster.ClusterForwardingInterceptor;
+import com.weljak.currencyexchange.util.Endpoints;
+import com.weljak.currencyexchange.webapi.admission.AdmissionControlInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebMvcConfig implements WebMvcConfigurer {
+    private final ClusterForwardingInterceptor clusterForwardingInterceptor;
+    private final AdmissionControlInterceptor admissionControlInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // forwarding runs first so admission limits are applied by the node that owns the account
+        registry.addInterceptor(clusterForwardingInterceptor).addPathPatterns(Endpoints.BANK_ACCOUNT_BASE_URL + "/**");
+        registry.addInterceptor(admissionControlInterceptor).addPathPatterns(Endpoints.BANK_ACCOUNT_BASE_URL + "/**");
+    }
+}
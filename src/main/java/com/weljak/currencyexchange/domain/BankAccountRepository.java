@@ -1,10 +1,24 @@
 package com.weljak.currencyexchange.domain;
 
 import com.weljak.currencyexchange.domain.model.BankAccount;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
 
-public interface BankAccountRepository extends JpaRepository<BankAccount, String> {
-    Optional<BankAccount> findByUuid(String uuid);
+public interface BankAccountRepository extends JpaRepository<BankAccount, UUID> {
+    Optional<BankAccount> findByUuid(UUID uuid);
+
+    @Query("select a.version from BankAccount a where a.uuid = :uuid")
+    Optional<Long> findVersionByUuid(@Param("uuid") UUID uuid);
+
+    @Query("select a.uuid from BankAccount a")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<UUID> streamAllUuids();
 }
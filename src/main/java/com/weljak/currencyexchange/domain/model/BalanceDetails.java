@@ -1,22 +1,32 @@
 package com.weljak.currencyexchange.domain.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
 import lombok.Value;
 
 import java.math.BigDecimal;
 
 @Value
+@AllArgsConstructor
 public class BalanceDetails {
     String name;
     String surname;
     BigDecimal balancePLN;
     BigDecimal balanceUSD;
+    @JsonIgnore
+    Long version;
+
+    public BalanceDetails(String name, String surname, BigDecimal balancePLN, BigDecimal balanceUSD) {
+        this(name, surname, balancePLN, balanceUSD, null);
+    }
 
     public static BalanceDetails fromBankAccount(BankAccount bankAccount) {
         return new BalanceDetails(
                 bankAccount.getName(),
                 bankAccount.getSurname(),
                 bankAccount.getBalancePLN(),
-                bankAccount.getBalanceUSD()
+                bankAccount.getBalanceUSD(),
+                bankAccount.getVersion()
         );
     }
 }
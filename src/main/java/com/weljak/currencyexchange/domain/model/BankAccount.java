@@ -4,12 +4,14 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.util.UUID;
 
 @Entity
 @Table(name = "bank_account")
@@ -20,7 +22,7 @@ import java.math.BigDecimal;
 public class BankAccount {
     @Id
     @Column(nullable = false, unique = true)
-    private String uuid;
+    private UUID uuid;
 
     @Column(nullable = false)
     private String name;
@@ -33,4 +35,24 @@ public class BankAccount {
 
     @Column(name = "usd_balance", nullable = false)
     private BigDecimal balanceUSD;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    /**
+     * State of an account row at version 0. Saving it merges into an existing row; use {@link #open} for accounts
+     * that are not in the database yet.
+     */
+    public BankAccount(UUID uuid, String name, String surname, BigDecimal balancePLN, BigDecimal balanceUSD) {
+        this(uuid, name, surname, balancePLN, balanceUSD, 0L);
+    }
+
+    /**
+     * A new account. Its version is unset, so Spring Data persists it with a plain INSERT instead of merging, which
+     * would first SELECT the row by its assigned id.
+     */
+    public static BankAccount open(UUID uuid, String name, String surname, BigDecimal balancePLN) {
+        return new BankAccount(uuid, name, surname, balancePLN, BigDecimal.ZERO, null);
+    }
 }
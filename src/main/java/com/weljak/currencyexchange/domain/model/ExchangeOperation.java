@@ -0,0 +1,31 @@
+package com.weljak.currencyexchange.domain.model;
+
+import lombok.Value;
+
+import java.time.Instant;
+
+@Value
+public class ExchangeOperation {
+    String id;
+    String accountId;
+    ExchangeOperationStatus status;
+    ExchangeDetails details;
+    String failureReason;
+    Instant submittedAt;
+
+    public static ExchangeOperation pending(String id, String accountId) {
+        return new ExchangeOperation(id, accountId, ExchangeOperationStatus.PENDING, null, null, Instant.now());
+    }
+
+    public ExchangeOperation processing() {
+        return new ExchangeOperation(id, accountId, ExchangeOperationStatus.PROCESSING, null, null, submittedAt);
+    }
+
+    public ExchangeOperation completed(ExchangeDetails exchangeDetails) {
+        return new ExchangeOperation(id, accountId, ExchangeOperationStatus.COMPLETED, exchangeDetails, null, submittedAt);
+    }
+
+    public ExchangeOperation failed(String reason) {
+        return new ExchangeOperation(id, accountId, ExchangeOperationStatus.FAILED, null, reason, submittedAt);
+    }
+}
@@ -0,0 +1,8 @@
+package com.weljak.currencyexchange.domain.model;
+
+public enum ExchangeOperationStatus {
+    PENDING,
+    PROCESSING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,11 @@
+package com.weljak.currencyexchange.domain.model.exception;
+
+/**
+ * Base class for expected outcomes such as an unknown account or insufficient funds. They are routine under normal
+ * traffic and are mapped straight to a response, so the stack trace is never captured.
+ */
+public abstract class BusinessException extends RuntimeException {
+    protected BusinessException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,7 @@
+package com.weljak.currencyexchange.domain.model.exception;
+
+public class ClusterAuthenticationException extends BusinessException {
+    public ClusterAuthenticationException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.weljak.currencyexchange.domain.model.exception;
+
+public class ClusterNodeUnavailableException extends BusinessException {
+    public ClusterNodeUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.weljak.currencyexchange.domain.model.exception;
+
+public class ExchangeOperationNotFoundException extends BusinessException {
+    public ExchangeOperationNotFoundException(String message) {
+        super(message);
+    }
+}
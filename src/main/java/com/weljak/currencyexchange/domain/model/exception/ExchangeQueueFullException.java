@@ -0,0 +1,7 @@
+package com.weljak.currencyexchange.domain.model.exception;
+
+public class ExchangeQueueFullException extends BusinessException {
+    public ExchangeQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.weljak.currencyexchange.domain.model.exception;
+
+public class IdempotencyKeyReusedException extends BusinessException {
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.weljak.currencyexchange.domain.model.exception;
+
+public class IdempotentRequestInProgressException extends BusinessException {
+    public IdempotentRequestInProgressException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,6 @@
 package com.weljak.currencyexchange.domain.model.exception;
 
-public class InsufficientFundsException extends RuntimeException {
+public class InsufficientFundsException extends BusinessException {
     public InsufficientFundsException(String message) {
         super(message);
     }
@@ -0,0 +1,7 @@
+package com.weljak.currencyexchange.domain.model.exception;
+
+public class RateLimitExceededException extends BusinessException {
+    public RateLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.weljak.currencyexchange.domain.model.exception;
+
+public class RequestBodyTooLargeException extends BusinessException {
+    public RequestBodyTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,6 @@
 package com.weljak.currencyexchange.domain.model.exception;
 
-public class RequestValidationException extends RuntimeException {
+public class RequestValidationException extends BusinessException {
     public RequestValidationException(String message) {
         super(message);
     }
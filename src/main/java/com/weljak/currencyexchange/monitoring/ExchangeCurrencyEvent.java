@@ -0,0 +1,83 @@
+package com.weljak.currencyexchange.monitoring;
+
+import jdk.jfr.*;
+
+/**
+ * Flight recorder event for one exchangeCurrency call, split into phases. Phase durations are only measured while
+ * the event is enabled in a running recording, so the event costs close to nothing otherwise.
+ */
+@Name("com.weljak.currencyexchange.ExchangeCurrency")
+@Label("Exchange Currency")
+@Category("Currency Exchange")
+@StackTrace(false)
+public class ExchangeCurrencyEvent extends Event {
+    @Label("Account Id")
+    public String accountId;
+
+    @Label("Exchange Type")
+    public String exchangeType;
+
+    @Label("Outcome")
+    public String outcome;
+
+    @Label("Account Load")
+    @Timespan(Timespan.NANOSECONDS)
+    public long accountLoad;
+
+    @Label("Rate Fetch")
+    @Timespan(Timespan.NANOSECONDS)
+    public long rateFetch;
+
+    @Label("Arithmetic")
+    @Timespan(Timespan.NANOSECONDS)
+    public long arithmetic;
+
+    @Label("Save")
+    @Description("Time to hand the updated account to the repository, the flush happens at transaction commit")
+    @Timespan(Timespan.NANOSECONDS)
+    public long save;
+
+    private transient long lastMark;
+
+    public void start(String accountId, String exchangeType) {
+        begin();
+        if (isEnabled()) {
+            this.accountId = accountId;
+            this.exchangeType = exchangeType;
+            this.lastMark = System.nanoTime();
+        }
+    }
+
+    public void accountLoaded() {
+        accountLoad = lap();
+    }
+
+    public void rateFetched() {
+        rateFetch = lap();
+    }
+
+    public void calculated() {
+        arithmetic = lap();
+    }
+
+    public void saved() {
+        save = lap();
+    }
+
+    public void finish(String outcome) {
+        if (shouldCommit()) {
+            this.outcome = outcome;
+            commit();
+        }
+    }
+
+    private long lap() {
+        if (!isEnabled()) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        long elapsed = now - lastMark;
+        lastMark = now;
+        return elapsed;
+    }
+}
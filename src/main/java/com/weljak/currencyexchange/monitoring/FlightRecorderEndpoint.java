@@ -0,0 +1,115 @@
+package com.weljak.currencyexchange.monitoring;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Controls a single flight recording: POST starts it, GET dumps what has been recorded so far and DELETE stops it.
+ * Only the JDK's built-in default and profile settings can be chosen. The endpoint is not exposed over HTTP by
+ * default; the jfr profile exposes it on a management port bound to the loopback interface.
+ */
+@Slf4j
+@Component
+@Endpoint(id = "flightrecorder")
+public class FlightRecorderEndpoint {
+    private static final String DEFAULT_SETTINGS = "default";
+    private static final Set<String> ALLOWED_SETTINGS = Set.of(DEFAULT_SETTINGS, "profile");
+
+    private Recording recording;
+
+    @WriteOperation
+    public synchronized Map<String, Object> start(@Nullable String settings, @Nullable Long maxAgeSeconds) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return status();
+        }
+        String settingsName = settings != null ? settings : DEFAULT_SETTINGS;
+        if (!ALLOWED_SETTINGS.contains(settingsName)) {
+            throw new InvalidEndpointRequestException("Unknown recording settings", "Settings must be one of " + ALLOWED_SETTINGS);
+        }
+        closeRecording();
+        try {
+            recording = new Recording(Configuration.getConfiguration(settingsName));
+        } catch (IOException | ParseException exception) {
+            throw new IllegalStateException("Could not load recording settings: " + settingsName, exception);
+        }
+        recording.setName("currency-exchange");
+        recording.enable(ExchangeCurrencyEvent.class);
+        recording.enable(NbpRateFetchEvent.class);
+        recording.setMaxAge(Duration.ofSeconds(maxAgeSeconds != null ? maxAgeSeconds : 600));
+        recording.start();
+        log.info("Flight recording {} started", recording.getId());
+        return status();
+    }
+
+    @ReadOperation
+    public synchronized WebEndpointResponse<Resource> dump() {
+        if (recording == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        try {
+            Path file = Files.createTempFile("currency-exchange-", ".jfr");
+            try {
+                recording.dump(file);
+                return new WebEndpointResponse<>(new ByteArrayResource(Files.readAllBytes(file)));
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    @DeleteOperation
+    public synchronized Map<String, Object> stop() {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+            log.info("Flight recording {} stopped", recording.getId());
+        }
+        return status();
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        closeRecording();
+    }
+
+    private Map<String, Object> status() {
+        if (recording == null) {
+            return Map.of("state", "NONE");
+        }
+        return Map.of(
+                "id", recording.getId(),
+                "state", recording.getState().name(),
+                "size", recording.getSize()
+        );
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.weljak.currencyexchange.monitoring;
+
+import jdk.jfr.*;
+
+/**
+ * Flight recorder event for one call to the NBP exchange rate api. The event duration is the call latency.
+ */
+@Name("com.weljak.currencyexchange.NbpRateFetch")
+@Label("NBP Rate Fetch")
+@Category("Currency Exchange")
+@StackTrace(false)
+public class NbpRateFetchEvent extends Event {
+    @Label("Url")
+    public String url;
+
+    @Label("Status Code")
+    @Description("HTTP status of the response, 0 when no response was received")
+    public int statusCode;
+}
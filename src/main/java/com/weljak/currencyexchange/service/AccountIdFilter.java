@@ -0,0 +1,85 @@
+package com.weljak.currencyexchange.service;
+
+import com.weljak.currencyexchange.domain.BankAccountRepository;
+import com.weljak.currencyexchange.util.UuidBloomFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * In-memory Bloom filter of existing account ids, used to reject ids that certainly do not exist without a
+ * database round-trip. Until the filter has been loaded from the table every id is treated as possibly existing.
+ */
+@Slf4j
+@Component
+public class AccountIdFilter implements MeterBinder {
+    private final BankAccountRepository bankAccountRepository;
+    private final UuidBloomFilter filter;
+    private final long expectedAccounts;
+    private final double falsePositiveRate;
+    private final LongAdder rejected = new LongAdder();
+    private volatile boolean loaded;
+
+    public AccountIdFilter(BankAccountRepository bankAccountRepository,
+                           @Value("${account.id-filter.expected-accounts:1000000}") long expectedAccounts,
+                           @Value("${account.id-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.bankAccountRepository = bankAccountRepository;
+        this.expectedAccounts = expectedAccounts;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = UuidBloomFilter.create(expectedAccounts, falsePositiveRate);
+    }
+
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long startedAt = System.currentTimeMillis();
+        try (Stream<UUID> ids = bankAccountRepository.streamAllUuids()) {
+            ids.forEach(filter::put);
+        }
+        loaded = true;
+        log.info("Account id filter loaded with {} ids in {} ms, size {} bytes, {} hash functions, expected false positive rate {}",
+                filter.insertions(), System.currentTimeMillis() - startedAt, filter.sizeInBytes(), filter.hashFunctions(), filter.expectedFalsePositiveRate());
+        if (filter.insertions() > expectedAccounts) {
+            log.warn("Account id filter holds {} ids but is sized for {}, false positive rate will exceed {}",
+                    filter.insertions(), expectedAccounts, falsePositiveRate);
+        }
+    }
+
+    public void add(UUID id) {
+        filter.put(id);
+    }
+
+    public boolean mightExist(UUID id) {
+        if (!loaded || filter.mightContain(id)) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("account.id.filter.size", filter, UuidBloomFilter::sizeInBytes)
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("account.id.filter.ids", filter, UuidBloomFilter::insertions)
+                .register(registry);
+        Gauge.builder("account.id.filter.false.positive.rate", filter, UuidBloomFilter::expectedFalsePositiveRate)
+                .description("Expected false positive rate for the current number of ids")
+                .register(registry);
+        FunctionCounter.builder("account.id.filter.rejected", rejected, LongAdder::sum)
+                .description("Lookups rejected without touching the database")
+                .register(registry);
+    }
+}
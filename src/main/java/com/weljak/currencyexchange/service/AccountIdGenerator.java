@@ -0,0 +1,26 @@
+package com.weljak.currencyexchange.service;
+
+import com.weljak.currencyexchange.cluster.ClusterTopology;
+import com.weljak.currencyexchange.util.TimeOrderedUuidGenerator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Generates ids for new accounts that are owned by this node, so a created account is registered in the id filter
+ * of the node that will serve it. In a cluster of n nodes this takes n attempts on average.
+ */
+@Component
+@RequiredArgsConstructor
+public class AccountIdGenerator {
+    private final ClusterTopology clusterTopology;
+
+    public UUID next() {
+        UUID id = TimeOrderedUuidGenerator.next();
+        while (!clusterTopology.isLocal(id)) {
+            id = TimeOrderedUuidGenerator.next();
+        }
+        return id;
+    }
+}
@@ -0,0 +1,12 @@
+package com.weljak.currencyexchange.service;
+
+import com.weljak.currencyexchange.domain.model.ExchangeOperation;
+import com.weljak.currencyexchange.webapi.request.ExchangeCurrencyRequest;
+
+import java.util.Optional;
+
+public interface AsyncExchangeService {
+    ExchangeOperation submitExchange(String id, ExchangeCurrencyRequest request);
+
+    Optional<ExchangeOperation> getOperation(String id, String operationId);
+}
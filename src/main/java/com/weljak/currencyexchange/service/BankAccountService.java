@@ -6,10 +6,17 @@ import com.weljak.currencyexchange.webapi.request.CreateBankAccountRequest;
 import com.weljak.currencyexchange.webapi.request.ExchangeCurrencyRequest;
 import com.weljak.currencyexchange.webapi.response.CreateBankAccountResponse;
 
+import java.util.List;
+import java.util.Optional;
+
 public interface BankAccountService {
     BalanceDetails getBalance(String id);
 
+    Optional<Long> getBalanceVersion(String id);
+
     ExchangeDetails exchangeCurrency(String id, ExchangeCurrencyRequest request);
 
     CreateBankAccountResponse createBankAccount(CreateBankAccountRequest form);
+
+    List<CreateBankAccountResponse> createBankAccounts(List<CreateBankAccountRequest> forms);
 }
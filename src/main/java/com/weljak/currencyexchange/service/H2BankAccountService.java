@@ -10,45 +10,92 @@ import com.weljak.currencyexchange.domain.model.exception.InsufficientFundsExcep
 import com.weljak.currencyexchange.domain.model.exception.RateNotFoundException;
 import com.weljak.currencyexchange.domain.model.external.ExchangeRateDetailsDto;
 import com.weljak.currencyexchange.domain.model.external.Rate;
+import com.weljak.currencyexchange.monitoring.ExchangeCurrencyEvent;
+import com.weljak.currencyexchange.monitoring.NbpRateFetchEvent;
 import com.weljak.currencyexchange.util.Endpoints;
 import com.weljak.currencyexchange.webapi.request.CreateBankAccountRequest;
 import com.weljak.currencyexchange.webapi.request.ExchangeCurrencyRequest;
 import com.weljak.currencyexchange.webapi.response.CreateBankAccountResponse;
 import jakarta.transaction.Transactional;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class H2BankAccountService implements BankAccountService {
     private final BankAccountRepository bankAccountRepository;
     private final RestTemplate restTemplate;
+    private final AccountIdFilter accountIdFilter;
+    private final AccountIdGenerator accountIdGenerator;
+    private final String usdRateUrl;
 
     private static final int SCALE = 2;
 
+    public H2BankAccountService(BankAccountRepository bankAccountRepository,
+                                RestTemplate restTemplate,
+                                AccountIdFilter accountIdFilter,
+                                AccountIdGenerator accountIdGenerator,
+                                @Value("${nbp.api.usd-rate-url:" + Endpoints.EXTERNAL_USD_CURRENCY_RATE_ENDPOINT + "}") String usdRateUrl) {
+        this.bankAccountRepository = bankAccountRepository;
+        this.restTemplate = restTemplate;
+        this.accountIdFilter = accountIdFilter;
+        this.accountIdGenerator = accountIdGenerator;
+        this.usdRateUrl = usdRateUrl;
+    }
+
     @Override
     @Transactional
     public BalanceDetails getBalance(String id) {
-        Optional<BankAccount> accountOptional = bankAccountRepository.findByUuid(id);
+        UUID accountId = UUID.fromString(id);
+        rejectUnknownAccount(accountId);
+        Optional<BankAccount> accountOptional = bankAccountRepository.findByUuid(accountId);
         if (accountOptional.isEmpty()) {
             throw new AccountNotFoundException("Account not found");
         }
         return BalanceDetails.fromBankAccount(accountOptional.get());
     }
 
+    @Override
+    @Transactional
+    public Optional<Long> getBalanceVersion(String id) {
+        UUID accountId = UUID.fromString(id);
+        if (!accountIdFilter.mightExist(accountId)) {
+            return Optional.empty();
+        }
+        return bankAccountRepository.findVersionByUuid(accountId);
+    }
+
     @Override
     @Transactional
     public ExchangeDetails exchangeCurrency(String id, ExchangeCurrencyRequest request) {
-        Optional<BankAccount> accountOptional = bankAccountRepository.findByUuid(id);
+        ExchangeCurrencyEvent event = new ExchangeCurrencyEvent();
+        event.start(id, String.valueOf(request.getExchangeType()));
+        try {
+            ExchangeDetails details = exchange(id, request, event);
+            event.finish("COMPLETED");
+            return details;
+        } catch (RuntimeException exception) {
+            event.finish(exception.getClass().getSimpleName());
+            throw exception;
+        }
+    }
+
+    private ExchangeDetails exchange(String id, ExchangeCurrencyRequest request, ExchangeCurrencyEvent event) {
+        UUID accountId = UUID.fromString(id);
+        rejectUnknownAccount(accountId);
+        Optional<BankAccount> accountOptional = bankAccountRepository.findByUuid(accountId);
+        event.accountLoaded();
         if (accountOptional.isEmpty()) {
             throw new AccountNotFoundException("Account not found");
         }
@@ -56,23 +103,29 @@ public class H2BankAccountService implements BankAccountService {
         switch (request.getExchangeType()) {
             case PLN_TO_USD -> {
                 if (account.getBalancePLN().compareTo(request.getAmountToExchange()) < 0) {
-                    log.error("Not enough PLN on account");
                     throw new InsufficientFundsException("Not enough funds on account to exchange currency");
                 }
                 BigDecimal currencyRate = getPLNtoUSDCurrencyRate();
+                event.rateFetched();
                 BigDecimal balancePLNUpdated = account.getBalancePLN().subtract(request.getAmountToExchange());
                 BigDecimal balanceUSDUpdated = account.getBalanceUSD().add(request.getAmountToExchange().divide(currencyRate, RoundingMode.CEILING));
-                return updateBankAccountAndReturnExchangeDetails(account, balancePLNUpdated, balanceUSDUpdated);
+                event.calculated();
+                ExchangeDetails details = updateBankAccountAndReturnExchangeDetails(account, balancePLNUpdated, balanceUSDUpdated);
+                event.saved();
+                return details;
             }
             case USD_TO_PLN -> {
                 if (account.getBalanceUSD().compareTo(request.getAmountToExchange()) < 0) {
-                    log.error("Not enough usd on account");
                     throw new InsufficientFundsException("Not enough funds on account to exchange currency");
                 }
                 BigDecimal currencyRate = getUSDtoPLNCurrencyRate();
+                event.rateFetched();
                 BigDecimal balancePLNUpdated = account.getBalancePLN().add(request.getAmountToExchange().multiply(currencyRate).setScale(SCALE, RoundingMode.CEILING));
                 BigDecimal balanceUSDUpdated = account.getBalanceUSD().subtract(request.getAmountToExchange());
-                return updateBankAccountAndReturnExchangeDetails(account, balancePLNUpdated, balanceUSDUpdated);
+                event.calculated();
+                ExchangeDetails details = updateBankAccountAndReturnExchangeDetails(account, balancePLNUpdated, balanceUSDUpdated);
+                event.saved();
+                return details;
             }
             default -> {
                 log.error("Given exchange type not recognized");
@@ -84,49 +137,85 @@ public class H2BankAccountService implements BankAccountService {
     @Override
     @Transactional
     public CreateBankAccountResponse createBankAccount(CreateBankAccountRequest form) {
-        String uuid = UUID.randomUUID().toString();
-        BankAccount account = new BankAccount(
+        UUID uuid = accountIdGenerator.next();
+        BankAccount account = BankAccount.open(
                 uuid,
                 form.getName(),
                 form.getSurname(),
-                form.getInitialBalancePLN(),
-                BigDecimal.ZERO
+                form.getInitialBalancePLN()
         );
         bankAccountRepository.save(account);
-        return new CreateBankAccountResponse(uuid, form.getInitialBalancePLN());
+        accountIdFilter.add(uuid);
+        return new CreateBankAccountResponse(uuid.toString(), form.getInitialBalancePLN());
     }
 
-    private BigDecimal getPLNtoUSDCurrencyRate() {
-        ResponseEntity<ExchangeRateDetailsDto> response = restTemplate.getForEntity(Endpoints.EXTERNAL_USD_CURRENCY_RATE_ENDPOINT, ExchangeRateDetailsDto.class);
-        if (response.getStatusCode().isError()) {
-            log.error("Error occurred during calling nbp api");
-            throw new ExternalServiceException("Error occurred during calling external api");
+    @Override
+    @Transactional
+    public List<CreateBankAccountResponse> createBankAccounts(List<CreateBankAccountRequest> forms) {
+        List<BankAccount> accounts = new ArrayList<>(forms.size());
+        for (CreateBankAccountRequest form : forms) {
+            accounts.add(BankAccount.open(
+                    accountIdGenerator.next(),
+                    form.getName(),
+                    form.getSurname(),
+                    form.getInitialBalancePLN()
+            ));
+        }
+        bankAccountRepository.saveAll(accounts);
+        List<CreateBankAccountResponse> responses = new ArrayList<>(accounts.size());
+        for (BankAccount account : accounts) {
+            accountIdFilter.add(account.getUuid());
+            responses.add(new CreateBankAccountResponse(account.getUuid().toString(), account.getBalancePLN()));
         }
+        return responses;
+    }
+
+    private void rejectUnknownAccount(UUID id) {
+        if (!accountIdFilter.mightExist(id)) {
+            throw new AccountNotFoundException("Account not found");
+        }
+    }
+
+    private BigDecimal getPLNtoUSDCurrencyRate() {
+        ResponseEntity<ExchangeRateDetailsDto> response = fetchUSDExchangeRate();
         return BigDecimal.valueOf(extractRateFromResponse(response).getAsk()).setScale(SCALE, RoundingMode.CEILING);
     }
 
     private BigDecimal getUSDtoPLNCurrencyRate() {
-        ResponseEntity<ExchangeRateDetailsDto> response = restTemplate.getForEntity(Endpoints.EXTERNAL_USD_CURRENCY_RATE_ENDPOINT, ExchangeRateDetailsDto.class);
-        if (response.getStatusCode().isError()) {
-            log.error("Error occurred during calling nbp api");
-            throw new ExternalServiceException("Error occurred during calling external api");
-        }
+        ResponseEntity<ExchangeRateDetailsDto> response = fetchUSDExchangeRate();
         return BigDecimal.valueOf(extractRateFromResponse(response).getBid()).setScale(SCALE, RoundingMode.CEILING);
     }
 
+    private ResponseEntity<ExchangeRateDetailsDto> fetchUSDExchangeRate() {
+        NbpRateFetchEvent event = new NbpRateFetchEvent();
+        event.begin();
+        try {
+            ResponseEntity<ExchangeRateDetailsDto> response = restTemplate.getForEntity(usdRateUrl, ExchangeRateDetailsDto.class);
+            event.statusCode = response.getStatusCode().value();
+            if (response.getStatusCode().isError()) {
+                log.error("Error occurred during calling nbp api");
+                throw new ExternalServiceException("Error occurred during calling external api");
+            }
+            return response;
+        } catch (RestClientResponseException exception) {
+            event.statusCode = exception.getStatusCode().value();
+            throw exception;
+        } finally {
+            if (event.shouldCommit()) {
+                event.url = usdRateUrl;
+                event.commit();
+            }
+        }
+    }
+
     private Rate extractRateFromResponse(ResponseEntity<ExchangeRateDetailsDto> response) {
         return response.getBody().getRates().stream().findFirst().orElseThrow(RateNotFoundException::new);
     }
 
     private ExchangeDetails updateBankAccountAndReturnExchangeDetails(BankAccount account, BigDecimal balancePLNUpdated, BigDecimal balanceUSDUpdated) {
-        BankAccount updated = new BankAccount(
-                account.getUuid(),
-                account.getName(),
-                account.getSurname(),
-                balancePLNUpdated,
-                balanceUSDUpdated
-        );
-        bankAccountRepository.save(updated);
+        account.setBalancePLN(balancePLNUpdated);
+        account.setBalanceUSD(balanceUSDUpdated);
+        bankAccountRepository.save(account);
         return new ExchangeDetails(balancePLNUpdated, balanceUSDUpdated);
     }
 }
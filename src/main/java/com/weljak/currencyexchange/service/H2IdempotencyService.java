@@ -0,0 +1,280 @@
+package com.weljak.currencyexchange.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weljak.currencyexchange.domain.IdempotencyRecordRepository;
+import com.weljak.currencyexchange.domain.model.IdempotencyRecord;
+import com.weljak.currencyexchange.domain.model.exception.IdempotencyKeyReusedException;
+import com.weljak.currencyexchange.domain.model.exception.IdempotentRequestInProgressException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Stores the response of every request sent with an idempotency key in the idempotency_record table, in the same
+ * transaction as the request's own changes, and keeps recent responses in a bounded in-memory map. The map also
+ * holds requests still in flight, so a duplicate arriving meanwhile waits for the first execution instead of
+ * running a second one. Only successful responses are stored; a request that failed may be retried with its key.
+ */
+@Slf4j
+@Service
+public class H2IdempotencyService implements IdempotencyService, MeterBinder {
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration timeToLive;
+    private final int maxCachedResponses;
+    private final long waitTimeoutMillis;
+
+    private final Map<String, CachedResponse> cache = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder replayedFromMemory = new LongAdder();
+    private final LongAdder replayedFromDatabase = new LongAdder();
+    private final LongAdder replayedAfterWait = new LongAdder();
+    private final LongAdder keyReused = new LongAdder();
+
+    public H2IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                                PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper,
+                                @Value("${idempotency.time-to-live-minutes:1440}") long timeToLiveMinutes,
+                                @Value("${idempotency.max-cached-responses:100000}") int maxCachedResponses,
+                                @Value("${idempotency.wait-timeout-millis:30000}") long waitTimeoutMillis) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.timeToLive = Duration.ofMinutes(timeToLiveMinutes);
+        this.maxCachedResponses = maxCachedResponses;
+        this.waitTimeoutMillis = waitTimeoutMillis;
+    }
+
+    @Override
+    public ResponseEntity<?> execute(String key, String operation, Object request, Supplier<? extends ResponseEntity<?>> action) {
+        String fingerprint = fingerprint(operation, request);
+        long deadline = System.currentTimeMillis() + waitTimeoutMillis;
+        while (true) {
+            CachedResponse claim = new CachedResponse(fingerprint);
+            CachedResponse existing = cache.putIfAbsent(key, claim);
+            if (existing == null) {
+                evictIfNeeded();
+                ResponseEntity<?> response = executeClaimed(key, claim, action);
+                if (response != null) {
+                    return response;
+                }
+                continue;
+            }
+            if (existing.isExpired(System.currentTimeMillis())) {
+                cache.remove(key, existing);
+                continue;
+            }
+            if (!existing.fingerprint.equals(fingerprint)) {
+                keyReused.increment();
+                throw new IdempotencyKeyReusedException("Idempotency key was already used for a different request");
+            }
+            if (existing.result.isDone() && !existing.result.isCompletedExceptionally()) {
+                replayedFromMemory.increment();
+                return replay(existing.result.join());
+            }
+            Optional<IdempotencyRecord> record = awaitInFlight(existing, deadline);
+            if (record.isPresent()) {
+                replayedAfterWait.increment();
+                return replay(record.get());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-millis:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        cache.values().removeIf(cached -> cached.isExpired(now));
+        Integer deleted = transactionTemplate.execute(status -> idempotencyRecordRepository.deleteExpired(Instant.ofEpochMilli(now)));
+        if (deleted != null && deleted > 0) {
+            log.debug("Purged {} expired idempotency records", deleted);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("idempotency.requests", executed, LongAdder::sum)
+                .tag("result", "executed")
+                .register(registry);
+        FunctionCounter.builder("idempotency.requests", replayedFromMemory, LongAdder::sum)
+                .tag("result", "replayed_from_memory")
+                .register(registry);
+        FunctionCounter.builder("idempotency.requests", replayedFromDatabase, LongAdder::sum)
+                .tag("result", "replayed_from_database")
+                .register(registry);
+        FunctionCounter.builder("idempotency.requests", replayedAfterWait, LongAdder::sum)
+                .tag("result", "replayed_after_wait")
+                .register(registry);
+        FunctionCounter.builder("idempotency.requests", keyReused, LongAdder::sum)
+                .tag("result", "key_reused")
+                .register(registry);
+        Gauge.builder("idempotency.replay.ratio", this, H2IdempotencyService::replayRatio)
+                .description("Share of keyed requests answered with a stored response")
+                .register(registry);
+        Gauge.builder("idempotency.cache.size", cache, Map::size)
+                .register(registry);
+    }
+
+    double replayRatio() {
+        double replayed = replayedFromMemory.sum() + replayedFromDatabase.sum() + replayedAfterWait.sum();
+        double total = replayed + executed.sum();
+        return total == 0 ? 0 : replayed / total;
+    }
+
+    // returns null when the claim was given up and the caller should look the key up again
+    private ResponseEntity<?> executeClaimed(String key, CachedResponse claim, Supplier<? extends ResponseEntity<?>> action) {
+        try {
+            Optional<IdempotencyRecord> stored = idempotencyRecordRepository.findById(key)
+                    .filter(record -> record.getExpiresAt().isAfter(Instant.now()));
+            if (stored.isPresent()) {
+                if (!stored.get().getFingerprint().equals(claim.fingerprint)) {
+                    keyReused.increment();
+                    throw new IdempotencyKeyReusedException("Idempotency key was already used for a different request");
+                }
+                claim.complete(stored.get());
+                replayedFromDatabase.increment();
+                return replay(stored.get());
+            }
+            ResponseEntity<?>[] response = new ResponseEntity<?>[1];
+            IdempotencyRecord record = transactionTemplate.execute(status -> {
+                response[0] = action.get();
+                // always an INSERT, so a row stored for this key since the lookup fails the flush and rolls back the action
+                return idempotencyRecordRepository.saveAndFlush(new IdempotencyRecord(
+                        key,
+                        claim.fingerprint,
+                        response[0].getStatusCode().value(),
+                        toJson(response[0].getBody()),
+                        Instant.now().plus(timeToLive)
+                ));
+            });
+            claim.complete(record);
+            executed.increment();
+            return response[0];
+        } catch (DataIntegrityViolationException exception) {
+            release(key, claim, exception);
+            if (!idempotencyRecordRepository.existsById(key)) {
+                throw exception;
+            }
+            // another node stored a response for this key first, so this execution was rolled back
+            return null;
+        } catch (RuntimeException exception) {
+            release(key, claim, exception);
+            throw exception;
+        }
+    }
+
+    private Optional<IdempotencyRecord> awaitInFlight(CachedResponse inFlight, long deadline) {
+        try {
+            return Optional.of(inFlight.result.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS));
+        } catch (ExecutionException exception) {
+            return Optional.empty();
+        } catch (TimeoutException exception) {
+            throw new IdempotentRequestInProgressException("Request with this idempotency key is still being processed");
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IdempotentRequestInProgressException("Request with this idempotency key is still being processed");
+        }
+    }
+
+    private void release(String key, CachedResponse claim, RuntimeException cause) {
+        cache.remove(key, claim);
+        claim.result.completeExceptionally(cause);
+    }
+
+    private ResponseEntity<String> replay(IdempotencyRecord record) {
+        return ResponseEntity.status(record.getStatus())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(IDEMPOTENT_REPLAY_HEADER, "true")
+                .body(record.getBody());
+    }
+
+    // completed responses are also in the table, so dropping them only costs a database read on the next replay
+    private void evictIfNeeded() {
+        if (cache.size() <= maxCachedResponses || !evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            cache.values().removeIf(cached -> cached.isExpired(now));
+            int target = maxCachedResponses - maxCachedResponses / 10;
+            Iterator<CachedResponse> entries = cache.values().iterator();
+            while (cache.size() > target && entries.hasNext()) {
+                if (entries.next().result.isDone()) {
+                    entries.remove();
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private String fingerprint(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException exception) {
+            throw new IllegalStateException("Could not fingerprint request", exception);
+        }
+    }
+
+    private String toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException("Could not serialize response", exception);
+        }
+    }
+
+    private static class CachedResponse {
+        private final String fingerprint;
+        private final CompletableFuture<IdempotencyRecord> result = new CompletableFuture<>();
+        private volatile long expiresAtMillis = Long.MAX_VALUE;
+
+        private CachedResponse(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        private void complete(IdempotencyRecord record) {
+            expiresAtMillis = record.getExpiresAt().toEpochMilli();
+            result.complete(record);
+        }
+
+        private boolean isExpired(long now) {
+            return expiresAtMillis < now;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.weljak.currencyexchange.service;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+    String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    String IDEMPOTENT_REPLAY_HEADER = "Idempotent-Replayed";
+
+    /**
+     * Runs {@code action} at most once per key and returns its response. Repeated calls with the same key and an
+     * identical request get the stored response instead; calls made while the first one is still running wait for it.
+     */
+    ResponseEntity<?> execute(String key, String operation, Object request, Supplier<? extends ResponseEntity<?>> action);
+}
@@ -0,0 +1,175 @@
+package com.weljak.currencyexchange.service;
+
+import com.weljak.currencyexchange.domain.model.ExchangeDetails;
+import com.weljak.currencyexchange.domain.model.ExchangeOperation;
+import com.weljak.currencyexchange.domain.model.exception.AccountNotFoundException;
+import com.weljak.currencyexchange.domain.model.exception.ExchangeQueueFullException;
+import com.weljak.currencyexchange.domain.model.exception.ExternalServiceException;
+import com.weljak.currencyexchange.domain.model.exception.InsufficientFundsException;
+import com.weljak.currencyexchange.domain.model.exception.RateNotFoundException;
+import com.weljak.currencyexchange.util.RateLimitedLogger;
+import com.weljak.currencyexchange.webapi.request.ExchangeCurrencyRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs currency exchanges off the request thread. Every account is pinned to one single-threaded worker lane,
+ * so exchanges for the same account are applied in submission order. Lanes have bounded queues and a full lane
+ * rejects new work instead of buffering it.
+ */
+@Slf4j
+@Service
+public class QueuedAsyncExchangeService implements AsyncExchangeService {
+    static final String ACCOUNT_NOT_FOUND = "User not found";
+    static final String NOT_ENOUGH_FUNDS = "Not enough funds on account";
+    static final String CONCURRENT_MODIFICATION = "Account was modified concurrently, retry the request";
+    static final String EXTERNAL_SERVICE_ERROR = "External service not responding";
+    static final String EXCHANGE_FAILED = "Exchange failed";
+
+    private static final RateLimitedLogger failureLog = new RateLimitedLogger(log, 10);
+
+    private final BankAccountService bankAccountService;
+    private final List<ThreadPoolExecutor> lanes;
+    private final int retainedOperations;
+
+    private final Map<String, ExchangeOperation> operations = new ConcurrentHashMap<>();
+    private final Queue<String> finishedOperations = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger finishedOperationsCount = new AtomicInteger();
+
+    private final Timer waitTimer;
+    private final Timer processingTimer;
+    private final Counter rejectedCounter;
+
+    public QueuedAsyncExchangeService(BankAccountService bankAccountService,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${exchange.async.workers:4}") int workers,
+                                      @Value("${exchange.async.queue-capacity-per-worker:256}") int queueCapacityPerWorker,
+                                      @Value("${exchange.async.retained-operations:10000}") int retainedOperations) {
+        this.bankAccountService = bankAccountService;
+        this.retainedOperations = retainedOperations;
+        this.lanes = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            lanes.add(new ThreadPoolExecutor(
+                    1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacityPerWorker),
+                    new CustomizableThreadFactory("exchange-worker-" + i + "-"),
+                    new ThreadPoolExecutor.AbortPolicy()
+            ));
+        }
+        Gauge.builder("exchange.async.queue.depth", lanes, QueuedAsyncExchangeService::queueDepth)
+                .description("Exchange requests waiting for a worker")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("exchange.async.wait")
+                .description("Time an exchange request spent queued before processing")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.processingTimer = Timer.builder("exchange.async.processing")
+                .description("Time spent processing a queued exchange request")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("exchange.async.rejected")
+                .description("Exchange requests rejected because the queue was full")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ExchangeOperation submitExchange(String id, ExchangeCurrencyRequest request) {
+        ExchangeOperation operation = ExchangeOperation.pending(UUID.randomUUID().toString(), id);
+        operations.put(operation.getId(), operation);
+        long enqueuedAt = System.nanoTime();
+        try {
+            laneFor(id).execute(() -> process(operation, request, enqueuedAt));
+        } catch (RejectedExecutionException exception) {
+            operations.remove(operation.getId());
+            rejectedCounter.increment();
+            throw new ExchangeQueueFullException("Exchange queue is full");
+        }
+        return operation;
+    }
+
+    @Override
+    public Optional<ExchangeOperation> getOperation(String id, String operationId) {
+        return Optional.ofNullable(operations.get(operationId))
+                .filter(operation -> operation.getAccountId().equals(id));
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        lanes.forEach(ThreadPoolExecutor::shutdown);
+        for (ThreadPoolExecutor lane : lanes) {
+            if (!lane.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Exchange worker did not drain its queue before shutdown");
+            }
+        }
+    }
+
+    private void process(ExchangeOperation operation, ExchangeCurrencyRequest request, long enqueuedAt) {
+        long startedAt = System.nanoTime();
+        waitTimer.record(startedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+        operations.put(operation.getId(), operation.processing());
+        try {
+            ExchangeDetails details = bankAccountService.exchangeCurrency(operation.getAccountId(), request);
+            finish(operation.completed(details));
+        } catch (RuntimeException exception) {
+            failureLog.warn("Exchange operation {} failed: {}", operation.getId(), exception.getClass().getSimpleName());
+            finish(operation.failed(failureReason(exception)));
+        } finally {
+            processingTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void finish(ExchangeOperation operation) {
+        operations.put(operation.getId(), operation);
+        finishedOperations.add(operation.getId());
+        if (finishedOperationsCount.incrementAndGet() > retainedOperations) {
+            String evicted = finishedOperations.poll();
+            if (evicted != null) {
+                finishedOperationsCount.decrementAndGet();
+                operations.remove(evicted);
+            }
+        }
+    }
+
+    // clients only see these fixed reasons, exception messages may carry internal or NBP error details
+    private static String failureReason(RuntimeException exception) {
+        if (exception instanceof AccountNotFoundException) {
+            return ACCOUNT_NOT_FOUND;
+        }
+        if (exception instanceof InsufficientFundsException) {
+            return NOT_ENOUGH_FUNDS;
+        }
+        if (exception instanceof OptimisticLockingFailureException) {
+            return CONCURRENT_MODIFICATION;
+        }
+        if (exception instanceof ExternalServiceException || exception instanceof RateNotFoundException || exception instanceof RestClientException) {
+            return EXTERNAL_SERVICE_ERROR;
+        }
+        return EXCHANGE_FAILED;
+    }
+
+    private ThreadPoolExecutor laneFor(String id) {
+        return lanes.get(Math.floorMod(id.hashCode(), lanes.size()));
+    }
+
+    private static double queueDepth(List<ThreadPoolExecutor> lanes) {
+        return lanes.stream().mapToInt(lane -> lane.getQueue().size()).sum();
+    }
+}
@@ -0,0 +1,45 @@
+package com.weljak.currencyexchange.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Maps UUIDs to members of a fixed member list. Every member is placed on the ring at several virtual positions so
+ * ownership is spread evenly, and adding or removing a member only moves the ids next to its positions. Positions
+ * are derived from the member names alone, so every node builds the same ring from the same list.
+ */
+public class ConsistentHashRing {
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+
+    public ConsistentHashRing(List<String> members, int virtualNodes) {
+        if (members.isEmpty()) {
+            throw new IllegalArgumentException("Ring needs at least one member");
+        }
+        for (String member : members) {
+            for (int i = 0; i < virtualNodes; i++) {
+                UUID position = UUID.nameUUIDFromBytes((member + "#" + i).getBytes(StandardCharsets.UTF_8));
+                ring.put(hash(position), member);
+            }
+        }
+    }
+
+    public String owner(UUID id) {
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash(id));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    private static long hash(UUID id) {
+        return mix(id.getMostSignificantBits() ^ mix(id.getLeastSignificantBits()));
+    }
+
+    // SplitMix64 finalizer; version 7 ids share their leading timestamp bits, so they have to be mixed before use
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -0,0 +1,70 @@
+package com.weljak.currencyexchange.util;
+
+import org.slf4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Writes at most a fixed number of messages per second to the wrapped logger. Messages over the limit are only
+ * counted, and the count is appended to the next message that gets through.
+ */
+public class RateLimitedLogger {
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Logger logger;
+    private final int messagesPerSecond;
+    private final AtomicReference<Window> window = new AtomicReference<>(new Window(System.nanoTime()));
+    private final LongAdder suppressed = new LongAdder();
+
+    public RateLimitedLogger(Logger logger, int messagesPerSecond) {
+        this.logger = logger;
+        this.messagesPerSecond = messagesPerSecond;
+    }
+
+    public void warn(String format, Object... arguments) {
+        if (!logger.isWarnEnabled()) {
+            return;
+        }
+        if (!tryAcquire()) {
+            suppressed.increment();
+            return;
+        }
+        long suppressedMessages = suppressed.sumThenReset();
+        if (suppressedMessages > 0) {
+            logger.warn(format + " ({} similar messages suppressed)", append(arguments, suppressedMessages));
+        } else {
+            logger.warn(format, arguments);
+        }
+    }
+
+    // the window start and its count are replaced together in one CAS, so a reset can never wipe out
+    // messages already counted against the new window
+    private boolean tryAcquire() {
+        long now = System.nanoTime();
+        Window current = window.get();
+        if (now - current.startNanos >= WINDOW_NANOS) {
+            Window next = new Window(now);
+            current = window.compareAndSet(current, next) ? next : window.get();
+        }
+        return current.messages.incrementAndGet() <= messagesPerSecond;
+    }
+
+    private static Object[] append(Object[] arguments, Object argument) {
+        Object[] extended = new Object[arguments.length + 1];
+        System.arraycopy(arguments, 0, extended, 0, arguments.length);
+        extended[arguments.length] = argument;
+        return extended;
+    }
+
+    private static class Window {
+        private final long startNanos;
+        private final AtomicInteger messages = new AtomicInteger();
+
+        private Window(long startNanos) {
+            this.startNanos = startNanos;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.weljak.currencyexchange.util;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates version 7 UUIDs: a 48-bit Unix millisecond timestamp followed by random bits. The 12 bits after the
+ * version field hold a per-millisecond sequence, so ids generated by one instance are strictly increasing and new
+ * rows are appended to the end of the primary key index.
+ */
+public class TimeOrderedUuidGenerator {
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final AtomicLong LAST_TIMESTAMP_AND_SEQUENCE = new AtomicLong();
+
+    public static UUID next() {
+        long candidate = System.currentTimeMillis() << 12;
+        long timestampAndSequence = LAST_TIMESTAMP_AND_SEQUENCE.updateAndGet(last -> Math.max(last + 1, candidate));
+        long mostSignificantBits = (timestampAndSequence >>> 12) << 16 | 0x7000L | (timestampAndSequence & 0xFFFL);
+        long leastSignificantBits = RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+}
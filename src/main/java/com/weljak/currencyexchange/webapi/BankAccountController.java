@@ -1,50 +1,143 @@
 package com.weljak.currencyexchange.webapi;
 
+import com.weljak.currencyexchange.domain.model.BalanceDetails;
+import com.weljak.currencyexchange.domain.model.ExchangeOperation;
+import com.weljak.currencyexchange.domain.model.exception.ExchangeOperationNotFoundException;
 import com.weljak.currencyexchange.domain.model.exception.RequestValidationException;
+import com.weljak.currencyexchange.service.AsyncExchangeService;
 import com.weljak.currencyexchange.service.BankAccountService;
+import com.weljak.currencyexchange.service.IdempotencyService;
 import com.weljak.currencyexchange.util.Endpoints;
 import com.weljak.currencyexchange.webapi.request.BankAccountRequestValidator;
 import com.weljak.currencyexchange.webapi.request.CreateBankAccountRequest;
 import com.weljak.currencyexchange.webapi.request.ExchangeCurrencyRequest;
 import com.weljak.currencyexchange.webapi.response.CreateBankAccountResponse;
 import com.weljak.currencyexchange.webapi.response.ExchangeCurrencyResponse;
+import com.weljak.currencyexchange.webapi.response.ExchangeOperationResponse;
 import com.weljak.currencyexchange.webapi.response.GetBalanceDetailsResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
 
 @Slf4j
 @RestController
 @RequiredArgsConstructor
 public class BankAccountController {
     private final BankAccountService bankAccountService;
+    private final AsyncExchangeService asyncExchangeService;
+    private final IdempotencyService idempotencyService;
 
     @PostMapping(Endpoints.BANK_ACCOUNT_CREATE_ACCOUNT_ENDPOINT)
-    ResponseEntity<CreateBankAccountResponse> createBankAccount(@RequestBody CreateBankAccountRequest request) {
+    ResponseEntity<?> createBankAccount(@RequestBody CreateBankAccountRequest request, @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         if (!BankAccountRequestValidator.validateCreateAccountForm(request)) {
-            log.error("Validation error for request: {}", request);
+            log.debug("Validation error for request: {}", request);
             throw new RequestValidationException("Invalid input");
         }
-        return new ResponseEntity<>(bankAccountService.createBankAccount(request), HttpStatus.CREATED);
+        validateIdempotencyKey(idempotencyKey);
+        if (idempotencyKey == null) {
+            return new ResponseEntity<>(bankAccountService.createBankAccount(request), HttpStatus.CREATED);
+        }
+        return idempotencyService.execute(idempotencyKey, Endpoints.BANK_ACCOUNT_CREATE_ACCOUNT_ENDPOINT, request,
+                () -> new ResponseEntity<>(bankAccountService.createBankAccount(request), HttpStatus.CREATED));
+    }
+
+    @PostMapping(Endpoints.BANK_ACCOUNT_BULK_CREATE_ACCOUNT_ENDPOINT)
+    ResponseEntity<List<CreateBankAccountResponse>> createBankAccounts(@RequestBody List<CreateBankAccountRequest> requests) {
+        if (!BankAccountRequestValidator.validateBulkCreateAccountForms(requests)) {
+            log.debug("Validation error for bulk create request of size: {}", requests == null ? 0 : requests.size());
+            throw new RequestValidationException("Invalid input");
+        }
+        return new ResponseEntity<>(bankAccountService.createBankAccounts(requests), HttpStatus.CREATED);
     }
 
     @GetMapping(Endpoints.BANK_ACCOUNT_GET_BALANCE_ENDPOINT)
-    ResponseEntity<GetBalanceDetailsResponse> getBalanceDetails(@PathVariable String id) {
+    ResponseEntity<GetBalanceDetailsResponse> getBalanceDetails(@PathVariable String id, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         if (!BankAccountRequestValidator.validateId(id)) {
-            log.error("Validation error for id: {}", id);
+            log.debug("Validation error for id: {}", id);
             throw new RequestValidationException("Invalid input parameter Id");
         }
-        return ResponseEntity.ok(new GetBalanceDetailsResponse(bankAccountService.getBalance(id)));
+        if (ifNoneMatch != null) {
+            Optional<String> currentETag = bankAccountService.getBalanceVersion(id).map(BankAccountController::balanceETag);
+            if (currentETag.isPresent() && eTagMatches(ifNoneMatch, currentETag.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(currentETag.get()).build();
+            }
+        }
+        BalanceDetails details = bankAccountService.getBalance(id);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (details.getVersion() != null) {
+            response.eTag(balanceETag(details.getVersion()));
+        }
+        return response.body(new GetBalanceDetailsResponse(details));
     }
 
     @PostMapping(Endpoints.BANK_ACCOUNT_EXCHANGE_CURRENCY_ENDPOINT)
-    ResponseEntity<ExchangeCurrencyResponse> exchangeCurrency(@PathVariable String id, @RequestBody ExchangeCurrencyRequest request) {
+    ResponseEntity<?> exchangeCurrency(@PathVariable String id, @RequestBody ExchangeCurrencyRequest request, @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        if (!BankAccountRequestValidator.validateExchangeCurrencyRequest(id, request)) {
+            log.debug("Error occurred during validation of exchange currency request");
+            throw new RequestValidationException("Invalid request");
+        }
+        validateIdempotencyKey(idempotencyKey);
+        if (idempotencyKey == null) {
+            return ResponseEntity.ok(new ExchangeCurrencyResponse(bankAccountService.exchangeCurrency(id, request)));
+        }
+        String operation = UriComponentsBuilder.fromPath(Endpoints.BANK_ACCOUNT_EXCHANGE_CURRENCY_ENDPOINT).buildAndExpand(id).toUriString();
+        return idempotencyService.execute(idempotencyKey, operation, request,
+                () -> ResponseEntity.ok(new ExchangeCurrencyResponse(bankAccountService.exchangeCurrency(id, request))));
+    }
+
+    @PostMapping(Endpoints.BANK_ACCOUNT_EXCHANGE_CURRENCY_ASYNC_ENDPOINT)
+    ResponseEntity<ExchangeOperationResponse> submitCurrencyExchange(@PathVariable String id, @RequestBody ExchangeCurrencyRequest request) {
         if (!BankAccountRequestValidator.validateExchangeCurrencyRequest(id, request)) {
-            log.error("Error occurred during validation of exchange currency request");
+            log.debug("Error occurred during validation of exchange currency request");
             throw new RequestValidationException("Invalid request");
         }
-        return ResponseEntity.ok(new ExchangeCurrencyResponse(bankAccountService.exchangeCurrency(id, request)));
+        ExchangeOperation operation = asyncExchangeService.submitExchange(id, request);
+        URI location = UriComponentsBuilder.fromPath(Endpoints.BANK_ACCOUNT_EXCHANGE_OPERATION_ENDPOINT)
+                .buildAndExpand(id, operation.getId())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(ExchangeOperationResponse.fromExchangeOperation(operation));
+    }
+
+    @GetMapping(Endpoints.BANK_ACCOUNT_EXCHANGE_OPERATION_ENDPOINT)
+    ResponseEntity<ExchangeOperationResponse> getExchangeOperation(@PathVariable String id, @PathVariable String operationId) {
+        if (!BankAccountRequestValidator.validateId(id) || !BankAccountRequestValidator.validateId(operationId)) {
+            log.debug("Validation error for id: {} and operation id: {}", id, operationId);
+            throw new RequestValidationException("Invalid input parameter Id");
+        }
+        ExchangeOperation operation = asyncExchangeService.getOperation(id, operationId)
+                .orElseThrow(() -> new ExchangeOperationNotFoundException("Exchange operation not found"));
+        return ResponseEntity.ok(ExchangeOperationResponse.fromExchangeOperation(operation));
+    }
+
+    private static void validateIdempotencyKey(String idempotencyKey) {
+        if (idempotencyKey != null && !BankAccountRequestValidator.validateIdempotencyKey(idempotencyKey)) {
+            log.debug("Validation error for idempotency key of length: {}", idempotencyKey.length());
+            throw new RequestValidationException("Invalid idempotency key");
+        }
+    }
+
+    private static String balanceETag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    private static boolean eTagMatches(String ifNoneMatch, String eTag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
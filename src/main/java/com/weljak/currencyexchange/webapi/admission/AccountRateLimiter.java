@@ -0,0 +1,55 @@
+package com.weljak.currencyexchange.webapi.admission;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket per account id. The number of tracked buckets is bounded. Only buckets that have refilled completely
+ * are ever evicted, since dropping a partly drained bucket would hand its account a fresh burst; when every tracked
+ * bucket is in use, requests for accounts without a bucket are rejected until some become idle.
+ */
+class AccountRateLimiter {
+    private static final long MIN_SWEEP_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final double burst;
+    private final double requestsPerSecond;
+    private final int maxTrackedAccounts;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweepNanos = new AtomicLong(System.nanoTime() - MIN_SWEEP_INTERVAL_NANOS);
+
+    AccountRateLimiter(double requestsPerSecond, double burst, int maxTrackedAccounts) {
+        this.requestsPerSecond = requestsPerSecond;
+        this.burst = burst;
+        this.maxTrackedAccounts = maxTrackedAccounts;
+    }
+
+    boolean tryAcquire(String id) {
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(id);
+        if (bucket == null) {
+            if (buckets.size() >= maxTrackedAccounts) {
+                evictIdle(now);
+            }
+            if (buckets.size() >= maxTrackedAccounts) {
+                return false;
+            }
+            bucket = buckets.computeIfAbsent(id, key -> new TokenBucket(burst, requestsPerSecond, now));
+        }
+        return bucket.tryConsume(now);
+    }
+
+    int trackedAccounts() {
+        return buckets.size();
+    }
+
+    // sweeps are rate limited so a flood of new ids against a full map does not turn into a flood of full scans
+    private void evictIdle(long now) {
+        long lastSweep = lastSweepNanos.get();
+        if (now - lastSweep < MIN_SWEEP_INTERVAL_NANOS || !lastSweepNanos.compareAndSet(lastSweep, now)) {
+            return;
+        }
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+}
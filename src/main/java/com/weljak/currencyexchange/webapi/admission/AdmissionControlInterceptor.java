@@ -0,0 +1,97 @@
+package com.weljak.currencyexchange.webapi.admission;
+
+import com.weljak.currencyexchange.domain.model.exception.RateLimitExceededException;
+import com.weljak.currencyexchange.webapi.request.BankAccountRequestValidator;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sheds load before it reaches the service layer: every bank account request needs a permit from a global
+ * concurrency limit, and requests addressing a single account additionally need a token from that account's bucket.
+ */
+@Component
+public class AdmissionControlInterceptor implements HandlerInterceptor, MeterBinder {
+    private static final String PERMIT_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".PERMIT";
+    private static final String ACCOUNT_ID_VARIABLE = "id";
+
+    private final int maxConcurrentRequests;
+    private final Semaphore concurrencyPermits;
+    private final AccountRateLimiter accountRateLimiter;
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejectedByAccountLimit = new LongAdder();
+    private final LongAdder rejectedByConcurrencyLimit = new LongAdder();
+
+    public AdmissionControlInterceptor(@Value("${admission.max-concurrent-requests:64}") int maxConcurrentRequests,
+                                       @Value("${admission.account.requests-per-second:20}") double accountRequestsPerSecond,
+                                       @Value("${admission.account.burst:40}") double accountBurst,
+                                       @Value("${admission.account.max-tracked:100000}") int maxTrackedAccounts) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.concurrencyPermits = new Semaphore(maxConcurrentRequests);
+        this.accountRateLimiter = new AccountRateLimiter(accountRequestsPerSecond, accountBurst, maxTrackedAccounts);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // the global limit is checked first so a request shed for concurrency does not cost its account a token
+        if (!concurrencyPermits.tryAcquire()) {
+            rejectedByConcurrencyLimit.increment();
+            throw new RateLimitExceededException("Too many concurrent requests");
+        }
+        String id = accountIdOf(request);
+        if (id != null && !accountRateLimiter.tryAcquire(id)) {
+            concurrencyPermits.release();
+            rejectedByAccountLimit.increment();
+            throw new RateLimitExceededException("Rate limit exceeded for account");
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, Boolean.TRUE);
+        admitted.increment();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            concurrencyPermits.release();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("admission.requests.admitted", admitted, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("admission.requests.rejected", rejectedByAccountLimit, LongAdder::sum)
+                .tag("reason", "account_rate_limit")
+                .register(registry);
+        FunctionCounter.builder("admission.requests.rejected", rejectedByConcurrencyLimit, LongAdder::sum)
+                .tag("reason", "concurrency_limit")
+                .register(registry);
+        Gauge.builder("admission.requests.in_flight", this, interceptor -> interceptor.maxConcurrentRequests - interceptor.concurrencyPermits.availablePermits())
+                .register(registry);
+        Gauge.builder("admission.accounts.tracked", accountRateLimiter, AccountRateLimiter::trackedAccounts)
+                .register(registry);
+    }
+
+    // ids the controller would reject get no bucket, so malformed or case-variant ids cannot grow the limiter
+    private static String accountIdOf(HttpServletRequest request) {
+        if (request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE) instanceof Map<?, ?> variables
+                && variables.get(ACCOUNT_ID_VARIABLE) instanceof String id
+                && BankAccountRequestValidator.validateId(id)) {
+            return id;
+        }
+        return null;
+    }
+}
@@ -1,7 +1,9 @@
 package com.weljak.currencyexchange.webapi.exception;
 
 import com.weljak.currencyexchange.domain.model.exception.*;
+import com.weljak.currencyexchange.util.RateLimitedLogger;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -11,10 +13,24 @@ import org.springframework.web.context.request.ServletWebRequest;
 @Slf4j
 @RestControllerAdvice
 public class ControllerAdvice {
+    private static final FailResponse USER_NOT_FOUND = new FailResponse(HttpStatus.NOT_FOUND.value(), "User not found");
+    private static final FailResponse NOT_ENOUGH_FUNDS = new FailResponse(HttpStatus.BAD_REQUEST.value(), "Not enough funds on account");
+    private static final FailResponse BAD_REQUEST = new FailResponse(HttpStatus.BAD_REQUEST.value(), "Bad request");
+    private static final FailResponse CONCURRENT_MODIFICATION = new FailResponse(HttpStatus.CONFLICT.value(), "Account was modified concurrently, retry the request");
+    private static final FailResponse EXCHANGE_OPERATION_NOT_FOUND = new FailResponse(HttpStatus.NOT_FOUND.value(), "Exchange operation not found");
+    private static final FailResponse TOO_MANY_REQUESTS = new FailResponse(HttpStatus.TOO_MANY_REQUESTS.value(), "Too many requests");
+    private static final FailResponse IDEMPOTENCY_KEY_REUSED = new FailResponse(HttpStatus.UNPROCESSABLE_ENTITY.value(), "Idempotency key was already used for a different request");
+    private static final FailResponse IDEMPOTENT_REQUEST_IN_PROGRESS = new FailResponse(HttpStatus.CONFLICT.value(), "Request with this idempotency key is still being processed");
+    private static final FailResponse FORWARDED_REQUEST_NOT_AUTHENTICATED = new FailResponse(HttpStatus.FORBIDDEN.value(), "Forwarded request not authenticated");
+    private static final FailResponse OWNER_NODE_UNAVAILABLE = new FailResponse(HttpStatus.SERVICE_UNAVAILABLE.value(), "Node owning the account is unavailable");
+    private static final FailResponse REQUEST_BODY_TOO_LARGE = new FailResponse(HttpStatus.PAYLOAD_TOO_LARGE.value(), "Request body too large");
+
+    private static final RateLimitedLogger businessFailureLog = new RateLimitedLogger(log, 10);
+
     @ExceptionHandler(AccountNotFoundException.class)
     ResponseEntity<FailResponse> handleUserNotFound(Exception exception, ServletWebRequest webRequest) {
-        log.error("Error occurred for request: {}", webRequest.getRequest().getRequestURI());
-        return new ResponseEntity<>(new FailResponse(HttpStatus.NOT_FOUND.value(), "User not found"), HttpStatus.NOT_FOUND);
+        businessFailureLog.warn("{} for request: {}", exception.getMessage(), webRequest.getRequest().getRequestURI());
+        return new ResponseEntity<>(USER_NOT_FOUND, HttpStatus.NOT_FOUND);
     }
 
     @ExceptionHandler({ExternalServiceException.class, RateNotFoundException.class})
@@ -25,13 +41,61 @@ public class ControllerAdvice {
 
     @ExceptionHandler(InsufficientFundsException.class)
     ResponseEntity<FailResponse> handleInternalServiceError(Exception exception, ServletWebRequest webRequest) {
-        log.error("Error occurred for request: {}", webRequest.getRequest().getRequestURI());
-        return new ResponseEntity<>(new FailResponse(HttpStatus.BAD_REQUEST.value(), "Not enough funds on account"), HttpStatus.BAD_REQUEST);
+        businessFailureLog.warn("{} for request: {}", exception.getMessage(), webRequest.getRequest().getRequestURI());
+        return new ResponseEntity<>(NOT_ENOUGH_FUNDS, HttpStatus.BAD_REQUEST);
     }
 
     @ExceptionHandler(RequestValidationException.class)
     ResponseEntity<FailResponse> handleRequestValidationError(Exception exception, ServletWebRequest webRequest) {
-        log.error("Error occurred for request: {}", webRequest.getRequest().getRequestURI());
-        return new ResponseEntity<>(new FailResponse(HttpStatus.BAD_REQUEST.value(), "Bad request"), HttpStatus.BAD_REQUEST);
+        businessFailureLog.warn("{} for request: {}", exception.getMessage(), webRequest.getRequest().getRequestURI());
+        return new ResponseEntity<>(BAD_REQUEST, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    ResponseEntity<FailResponse> handleConcurrentModification(Exception exception, ServletWebRequest webRequest) {
+        businessFailureLog.warn("Concurrent modification for request: {}", webRequest.getRequest().getRequestURI());
+        return new ResponseEntity<>(CONCURRENT_MODIFICATION, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(ExchangeOperationNotFoundException.class)
+    ResponseEntity<FailResponse> handleExchangeOperationNotFound(Exception exception, ServletWebRequest webRequest) {
+        businessFailureLog.warn("{} for request: {}", exception.getMessage(), webRequest.getRequest().getRequestURI());
+        return new ResponseEntity<>(EXCHANGE_OPERATION_NOT_FOUND, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler({ExchangeQueueFullException.class, RateLimitExceededException.class})
+    ResponseEntity<FailResponse> handleOverload(Exception exception, ServletWebRequest webRequest) {
+        businessFailureLog.warn("{}, rejecting request: {}", exception.getMessage(), webRequest.getRequest().getRequestURI());
+        return new ResponseEntity<>(TOO_MANY_REQUESTS, HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @ExceptionHandler(ClusterNodeUnavailableException.class)
+    ResponseEntity<FailResponse> handleOwnerNodeUnavailable(Exception exception, ServletWebRequest webRequest) {
+        businessFailureLog.warn("{} for request: {}", exception.getMessage(), webRequest.getRequest().getRequestURI());
+        return new ResponseEntity<>(OWNER_NODE_UNAVAILABLE, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(ClusterAuthenticationException.class)
+    ResponseEntity<FailResponse> handleClusterAuthenticationFailure(Exception exception, ServletWebRequest webRequest) {
+        businessFailureLog.warn("{} for request: {}", exception.getMessage(), webRequest.getRequest().getRequestURI());
+        return new ResponseEntity<>(FORWARDED_REQUEST_NOT_AUTHENTICATED, HttpStatus.FORBIDDEN);
+    }
+
+    @ExceptionHandler(RequestBodyTooLargeException.class)
+    ResponseEntity<FailResponse> handleRequestBodyTooLarge(Exception exception, ServletWebRequest webRequest) {
+        businessFailureLog.warn("{} for request: {}", exception.getMessage(), webRequest.getRequest().getRequestURI());
+        return new ResponseEntity<>(REQUEST_BODY_TOO_LARGE, HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    ResponseEntity<FailResponse> handleIdempotencyKeyReused(Exception exception, ServletWebRequest webRequest) {
+        businessFailureLog.warn("{} for request: {}", exception.getMessage(), webRequest.getRequest().getRequestURI());
+        return new ResponseEntity<>(IDEMPOTENCY_KEY_REUSED, HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    @ExceptionHandler(IdempotentRequestInProgressException.class)
+    ResponseEntity<FailResponse> handleIdempotentRequestInProgress(Exception exception, ServletWebRequest webRequest) {
+        businessFailureLog.warn("{} for request: {}", exception.getMessage(), webRequest.getRequest().getRequestURI());
+        return new ResponseEntity<>(IDEMPOTENT_REQUEST_IN_PROGRESS, HttpStatus.CONFLICT);
     }
 }
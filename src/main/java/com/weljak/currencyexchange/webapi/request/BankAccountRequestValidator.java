@@ -1,20 +1,44 @@
 package com.weljak.currencyexchange.webapi.request;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 public class BankAccountRequestValidator {
+    private static final int UUID_LENGTH = 36;
+    private static final int MAX_BULK_CREATE_SIZE = 1000;
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
     public static boolean validateCreateAccountForm(CreateBankAccountRequest form) {
         if (form.getName().isEmpty() || form.getName().isBlank() || form.getSurname().isEmpty() || form.getSurname().isBlank())
             return false;
         return form.getInitialBalancePLN().compareTo(BigDecimal.ZERO) >= 0;
     }
 
+    public static boolean validateBulkCreateAccountForms(List<CreateBankAccountRequest> forms) {
+        if (forms == null || forms.isEmpty() || forms.size() > MAX_BULK_CREATE_SIZE) return false;
+        return forms.stream().allMatch(form -> form != null && validateCreateAccountForm(form));
+    }
+
+    /**
+     * Accepts only the canonical lowercase form UUID.toString() produces. Ids are used as map keys for rate limiting,
+     * exchange lanes and idempotency fingerprints, so a case variant of an id must not pass as a different account.
+     */
     public static boolean validateId(String id) {
-        return !id.isEmpty() && !id.isBlank();
+        if (id == null || id.length() != UUID_LENGTH) return false;
+        for (int i = 0; i < UUID_LENGTH; i++) {
+            char c = id.charAt(i);
+            boolean valid = (i == 8 || i == 13 || i == 18 || i == 23) ? c == '-' : (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f');
+            if (!valid) return false;
+        }
+        return true;
     }
 
     public static boolean validateExchangeCurrencyRequest(String id, ExchangeCurrencyRequest request) {
         if (!validateId(id)) return false;
         return request.getAmountToExchange().compareTo(BigDecimal.ZERO) >= 0;
     }
+
+    public static boolean validateIdempotencyKey(String key) {
+        return key != null && !key.isBlank() && key.length() <= MAX_IDEMPOTENCY_KEY_LENGTH;
+    }
 }
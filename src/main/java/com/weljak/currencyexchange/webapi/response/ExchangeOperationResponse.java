@@ -0,0 +1,23 @@
+package com.weljak.currencyexchange.webapi.response;
+
+import com.weljak.currencyexchange.domain.model.ExchangeDetails;
+import com.weljak.currencyexchange.domain.model.ExchangeOperation;
+import com.weljak.currencyexchange.domain.model.ExchangeOperationStatus;
+import lombok.Value;
+
+@Value
+public class ExchangeOperationResponse {
+    String operationId;
+    ExchangeOperationStatus status;
+    ExchangeDetails details;
+    String failureReason;
+
+    public static ExchangeOperationResponse fromExchangeOperation(ExchangeOperation operation) {
+        return new ExchangeOperationResponse(
+                operation.getId(),
+                operation.getStatus(),
+                operation.getDetails(),
+                operation.getFailureReason()
+        );
+    }
+}
@@ -0,0 +1,8 @@
+-- Converts bank_account.uuid from VARCHAR to the fixed-width 16-byte UUID type for databases created before
+-- account ids were stored in binary form. Existing ids keep their value, only the storage format changes.
+-- In-memory databases are recreated by Hibernate on startup and do not need it. For a file or server database, stop
+-- the application and apply it once before starting the new version, either from the H2 console or shell:
+--   RUNSCRIPT FROM 'classpath:db/bank_account_binary_uuid.sql';
+-- or from the command line with the H2 jar:
+--   java -cp h2.jar org.h2.tools.RunScript -url jdbc:h2:file:./data/bank -script src/main/resources/db/bank_account_binary_uuid.sql
+ALTER TABLE bank_account ALTER COLUMN uuid SET DATA TYPE UUID;
@@ -0,0 +1,8 @@
+-- Adds the optimistic locking version column to bank_account for databases created before balance responses
+-- carried ETags. Existing rows start at version 0.
+-- In-memory databases are recreated by Hibernate on startup and do not need it. For a file or server database, stop
+-- the application and apply it once before starting the new version, either from the H2 console or shell:
+--   RUNSCRIPT FROM 'classpath:db/bank_account_version.sql';
+-- or from the command line with the H2 jar:
+--   java -cp h2.jar org.h2.tools.RunScript -url jdbc:h2:file:./data/bank -script src/main/resources/db/bank_account_version.sql
+ALTER TABLE bank_account ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
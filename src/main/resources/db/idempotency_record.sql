@@ -0,0 +1,13 @@
+-- Creates the table holding stored responses for requests sent with an Idempotency-Key header, for file or server
+-- H2 databases whose schema is not managed by Hibernate. Rows past expires_at are deleted by the application.
+-- Apply once, e.g. RUNSCRIPT FROM 'classpath:db/idempotency_record.sql'.
+CREATE TABLE IF NOT EXISTS idempotency_record (
+    idempotency_key VARCHAR(255) NOT NULL PRIMARY KEY,
+    fingerprint VARCHAR(64) NOT NULL,
+    status INTEGER NOT NULL,
+    body CLOB NOT NULL,
+    expires_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_idempotency_record_expires_at ON idempotency_record (expires_at);
+-- tables created with the earlier VARCHAR(4000) body column
+ALTER TABLE idempotency_record ALTER COLUMN body SET DATA TYPE CLOB;
@@ -0,0 +1,191 @@
+package com.weljak.currencyexchange.cluster;
+
+import com.weljak.currencyexchange.domain.model.exception.ClusterAuthenticationException;
+import com.weljak.currencyexchange.domain.model.exception.RequestBodyTooLargeException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ClusterForwardingInterceptorTest {
+    private static final String SELF = "http://localhost:8081";
+    private static final String PEER = "http://localhost:8082";
+    private static final String SECRET = "cluster-test-secret";
+    private static final int MAX_BODY_BYTES = 1024;
+    private static final String EXCHANGE_BODY = "{\"exchangeType\":\"PLN_TO_USD\",\"amountToExchange\":10}";
+
+    private final ClusterTopology clusterTopology = new ClusterTopology(true, List.of(SELF, PEER), SELF, 128);
+    private final ClusterForwardingInterceptor interceptor = new ClusterForwardingInterceptor(clusterTopology, SECRET, 30_000, 1000, 1000, MAX_BODY_BYTES);
+
+    @Test
+    void shouldHandleRequestSignedByMemberLocally() throws Exception {
+        //given
+        MockHttpServletRequest request = balanceRequest(peerOwnedId());
+        sign(request, PEER, SECRET, System.currentTimeMillis());
+
+        //when
+        boolean handledLocally = interceptor.preHandle(buffered(request), new MockHttpServletResponse(), null);
+
+        //then
+        assertTrue(handledLocally);
+    }
+
+    @Test
+    void shouldRejectForwardedHeaderWithoutSignature() {
+        //given
+        MockHttpServletRequest request = balanceRequest(peerOwnedId());
+        request.addHeader(ClusterForwardingInterceptor.FORWARDED_HEADER, PEER);
+
+        //when
+        //then
+        assertThrows(ClusterAuthenticationException.class, () -> interceptor.preHandle(buffered(request), new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    void shouldRejectSignatureMadeWithDifferentSecret() {
+        //given
+        MockHttpServletRequest request = balanceRequest(peerOwnedId());
+        sign(request, PEER, "guessed-secret", System.currentTimeMillis());
+
+        //when
+        //then
+        assertThrows(ClusterAuthenticationException.class, () -> interceptor.preHandle(buffered(request), new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    void shouldRejectSignatureFromOutsideCluster() {
+        //given
+        MockHttpServletRequest request = balanceRequest(peerOwnedId());
+        sign(request, "http://localhost:9999", SECRET, System.currentTimeMillis());
+
+        //when
+        //then
+        assertThrows(ClusterAuthenticationException.class, () -> interceptor.preHandle(buffered(request), new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    void shouldRejectExpiredSignature() {
+        //given
+        MockHttpServletRequest request = balanceRequest(peerOwnedId());
+        sign(request, PEER, SECRET, System.currentTimeMillis() - 60_000);
+
+        //when
+        //then
+        assertThrows(ClusterAuthenticationException.class, () -> interceptor.preHandle(buffered(request), new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    void shouldRejectSignatureReplayedForDifferentPath() {
+        //given
+        MockHttpServletRequest signed = balanceRequest(peerOwnedId());
+        sign(signed, PEER, SECRET, System.currentTimeMillis());
+        MockHttpServletRequest replayed = balanceRequest(peerOwnedId());
+        replayed.addHeader(ClusterForwardingInterceptor.FORWARDED_HEADER, PEER);
+        replayed.addHeader(ClusterForwardingInterceptor.SIGNATURE_HEADER, signed.getHeader(ClusterForwardingInterceptor.SIGNATURE_HEADER));
+
+        //when
+        //then
+        assertThrows(ClusterAuthenticationException.class, () -> interceptor.preHandle(buffered(replayed), new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    void shouldHandleExchangeSignedByMemberLocally() throws Exception {
+        //given
+        MockHttpServletRequest request = exchangeRequest(peerOwnedId(), EXCHANGE_BODY);
+        sign(request, PEER, SECRET, System.currentTimeMillis());
+
+        //when
+        boolean handledLocally = interceptor.preHandle(buffered(request), new MockHttpServletResponse(), null);
+
+        //then
+        assertTrue(handledLocally);
+    }
+
+    @Test
+    void shouldRejectSignatureWhenBodyWasChanged() {
+        //given
+        MockHttpServletRequest request = exchangeRequest(peerOwnedId(), EXCHANGE_BODY);
+        sign(request, PEER, SECRET, System.currentTimeMillis());
+        request.setContent(EXCHANGE_BODY.replace("10", "1000").getBytes(StandardCharsets.UTF_8));
+
+        //when
+        //then
+        assertThrows(ClusterAuthenticationException.class, () -> interceptor.preHandle(buffered(request), new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    void shouldRejectForwardedRequestWhoseBodyWasNotBuffered() {
+        //given
+        MockHttpServletRequest request = exchangeRequest(peerOwnedId(), EXCHANGE_BODY);
+        sign(request, PEER, SECRET, System.currentTimeMillis());
+
+        //when
+        //then
+        assertThrows(ClusterAuthenticationException.class, () -> interceptor.preHandle(request, new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    void shouldRejectForwardedBodyOverLimit() {
+        //given
+        MockHttpServletRequest request = exchangeRequest(peerOwnedId(), "x".repeat(MAX_BODY_BYTES + 1));
+        sign(request, PEER, SECRET, System.currentTimeMillis());
+
+        //when
+        //then
+        assertThrows(RequestBodyTooLargeException.class, () -> interceptor.preHandle(buffered(request), new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    void shouldNotForwardBodyOverLimit() {
+        //given
+        MockHttpServletRequest request = exchangeRequest(peerOwnedId(), "x".repeat(MAX_BODY_BYTES + 1));
+
+        //when
+        //then
+        assertThrows(RequestBodyTooLargeException.class, () -> interceptor.preHandle(request, new MockHttpServletResponse(), null));
+    }
+
+    private UUID peerOwnedId() {
+        UUID id = UUID.randomUUID();
+        while (!clusterTopology.ownerOf(id).equals(PEER)) {
+            id = UUID.randomUUID();
+        }
+        return id;
+    }
+
+    private static void sign(MockHttpServletRequest request, String sender, String secret, long signedAtMillis) {
+        ClusterRequestSigner signer = new ClusterRequestSigner(secret, Duration.ofSeconds(30));
+        request.addHeader(ClusterForwardingInterceptor.FORWARDED_HEADER, sender);
+        byte[] body = request.getContentAsByteArray() == null ? new byte[0] : request.getContentAsByteArray();
+        request.addHeader(ClusterForwardingInterceptor.SIGNATURE_HEADER, signer.sign(sender, request.getMethod(), request.getRequestURI(), body, signedAtMillis));
+    }
+
+    // what ForwardedRequestBodyFilter passes on for a request carrying the forwarded header
+    private static BufferedBodyRequest buffered(MockHttpServletRequest request) throws IOException {
+        return BufferedBodyRequest.read(request, MAX_BODY_BYTES);
+    }
+
+    private static MockHttpServletRequest balanceRequest(UUID id) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/bank/account/" + id + "/balance");
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("id", id.toString()));
+        return request;
+    }
+
+    private static MockHttpServletRequest exchangeRequest(UUID id, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/bank/account/" + id + "/currency/exchange");
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("id", id.toString()));
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
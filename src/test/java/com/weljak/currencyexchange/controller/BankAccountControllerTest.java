@@ -1,34 +1,58 @@
 package com.weljak.currencyexchange.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weljak.currencyexchange.cluster.ClusterTopology;
 import com.weljak.currencyexchange.domain.model.BalanceDetails;
 import com.weljak.currencyexchange.domain.model.ExchangeDetails;
+import com.weljak.currencyexchange.domain.model.ExchangeOperation;
 import com.weljak.currencyexchange.domain.model.ExchangeType;
+import com.weljak.currencyexchange.domain.model.exception.ExchangeQueueFullException;
+import com.weljak.currencyexchange.service.AsyncExchangeService;
 import com.weljak.currencyexchange.service.BankAccountService;
+import com.weljak.currencyexchange.service.IdempotencyService;
 import com.weljak.currencyexchange.util.Endpoints;
 import com.weljak.currencyexchange.webapi.BankAccountController;
 import com.weljak.currencyexchange.webapi.request.CreateBankAccountRequest;
 import com.weljak.currencyexchange.webapi.request.ExchangeCurrencyRequest;
 import com.weljak.currencyexchange.webapi.response.CreateBankAccountResponse;
+import com.weljak.currencyexchange.webapi.response.ExchangeCurrencyResponse;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ActiveProfiles("test")
 @WebMvcTest(controllers = BankAccountController.class)
+// the slice loads AdmissionControlInterceptor; tests here poll one account more often than the default burst allows
+@TestPropertySource(properties = "admission.account.burst=1000")
 public class BankAccountControllerTest {
     @Autowired
     private MockMvc mockMvc;
@@ -36,6 +60,15 @@ public class BankAccountControllerTest {
     @MockBean
     private BankAccountService bankAccountService;
 
+    @MockBean
+    private AsyncExchangeService asyncExchangeService;
+
+    @MockBean
+    private ClusterTopology clusterTopology;
+
+    @MockBean
+    private IdempotencyService idempotencyService;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Test
@@ -91,6 +124,38 @@ public class BankAccountControllerTest {
         mockMvc.perform(post(Endpoints.BANK_ACCOUNT_CREATE_ACCOUNT_ENDPOINT).content(objectMapper.writeValueAsString(request)).contentType(MediaType.APPLICATION_JSON)).andExpect(status().isBadRequest());
     }
 
+    @Test
+    void shouldReturnStatusCreatedWhenBulkCreateInputIsValid() throws Exception {
+        //given
+        List<CreateBankAccountRequest> requests = List.of(
+                new CreateBankAccountRequest("John", "Doe", BigDecimal.ZERO),
+                new CreateBankAccountRequest("Jane", "Doe", BigDecimal.TEN)
+        );
+
+        //when
+        when(bankAccountService.createBankAccounts(requests)).thenReturn(List.of(
+                new CreateBankAccountResponse(UUID.randomUUID().toString(), BigDecimal.ZERO),
+                new CreateBankAccountResponse(UUID.randomUUID().toString(), BigDecimal.TEN)
+        ));
+
+        //then
+        mockMvc.perform(post(Endpoints.BANK_ACCOUNT_BULK_CREATE_ACCOUNT_ENDPOINT).content(objectMapper.writeValueAsString(requests)).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void shouldReturnStatusBadRequestWhenBulkCreateInputContainsInvalidForm() throws Exception {
+        //given
+        List<CreateBankAccountRequest> requests = List.of(
+                new CreateBankAccountRequest("John", "Doe", BigDecimal.ZERO),
+                new CreateBankAccountRequest("", "Doe", BigDecimal.TEN)
+        );
+
+        //then
+        mockMvc.perform(post(Endpoints.BANK_ACCOUNT_BULK_CREATE_ACCOUNT_ENDPOINT).content(objectMapper.writeValueAsString(requests)).contentType(MediaType.APPLICATION_JSON)).andExpect(status().isBadRequest());
+    }
+
     @Test
     void shouldReturnStatusOkWhenCheckBalanceInputIsValid() throws Exception {
         //given
@@ -107,6 +172,46 @@ public class BankAccountControllerTest {
         mockMvc.perform(get(Endpoints.BANK_ACCOUNT_GET_BALANCE_ENDPOINT, testUUID).contentType(MediaType.APPLICATION_JSON)).andExpect(status().isOk());
     }
 
+    @Test
+    void shouldReturnStatusNotModifiedWhenBalanceVersionMatchesETag() throws Exception {
+        //given
+        String testUUID = UUID.randomUUID().toString();
+
+        //when
+        when(bankAccountService.getBalanceVersion(testUUID)).thenReturn(Optional.of(3L));
+
+        //then
+        mockMvc.perform(get(Endpoints.BANK_ACCOUNT_GET_BALANCE_ENDPOINT, testUUID).header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+        verify(bankAccountService, never()).getBalance(testUUID);
+    }
+
+    @Test
+    void shouldAnswerMostPollsWithNotModifiedWhenBalanceChangesRarely() throws Exception {
+        //given
+        String testUUID = UUID.randomUUID().toString();
+        int polls = 100;
+        int pollsPerBalanceChange = 10;
+        AtomicLong poll = new AtomicLong();
+        when(bankAccountService.getBalanceVersion(testUUID)).thenAnswer(invocation -> Optional.of(poll.get() / pollsPerBalanceChange));
+        when(bankAccountService.getBalance(testUUID)).thenAnswer(invocation -> new BalanceDetails("John", "Doe", BigDecimal.ZERO, BigDecimal.ZERO, poll.get() / pollsPerBalanceChange));
+
+        //when
+        String eTag = null;
+        int notModified = 0;
+        for (; poll.get() < polls; poll.incrementAndGet()) {
+            MvcResult result = mockMvc.perform(eTag == null
+                    ? get(Endpoints.BANK_ACCOUNT_GET_BALANCE_ENDPOINT, testUUID)
+                    : get(Endpoints.BANK_ACCOUNT_GET_BALANCE_ENDPOINT, testUUID).header(HttpHeaders.IF_NONE_MATCH, eTag)).andReturn();
+            if (result.getResponse().getStatus() == 304) notModified++;
+            eTag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        }
+
+        //then
+        assertEquals(polls - polls / pollsPerBalanceChange, notModified);
+    }
+
     @Test
     void shouldReturnStatusBadRequestWhenCheckBalanceInputIsBlank() throws Exception {
         //given
@@ -117,6 +222,34 @@ public class BankAccountControllerTest {
         mockMvc.perform(get(Endpoints.BANK_ACCOUNT_GET_BALANCE_ENDPOINT, testUUID).contentType(MediaType.APPLICATION_JSON)).andExpect(status().isBadRequest());
     }
 
+    @Test
+    void shouldReturnStatusBadRequestWhenCheckBalanceInputIsNotUuid() throws Exception {
+        //given
+        String testUUID = "not-a-uuid-but-36-characters-long-xx";
+
+        //then
+        mockMvc.perform(get(Endpoints.BANK_ACCOUNT_GET_BALANCE_ENDPOINT, testUUID).contentType(MediaType.APPLICATION_JSON)).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldReturnStatusBadRequestWhenIdIsCaseVariantOfExistingId() throws Exception {
+        //given
+        String testUUID = UUID.randomUUID().toString();
+        String caseVariant = testUUID.toUpperCase();
+        when(bankAccountService.getBalance(testUUID)).thenReturn(new BalanceDetails("John", "Doe", BigDecimal.ZERO, BigDecimal.ZERO));
+        String body = objectMapper.writeValueAsString(new ExchangeCurrencyRequest(ExchangeType.PLN_TO_USD, BigDecimal.ONE));
+
+        //when
+        mockMvc.perform(get(Endpoints.BANK_ACCOUNT_GET_BALANCE_ENDPOINT, testUUID)).andExpect(status().isOk());
+
+        //then
+        mockMvc.perform(get(Endpoints.BANK_ACCOUNT_GET_BALANCE_ENDPOINT, caseVariant)).andExpect(status().isBadRequest());
+        mockMvc.perform(post(Endpoints.BANK_ACCOUNT_EXCHANGE_CURRENCY_ASYNC_ENDPOINT, caseVariant).content(body).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        verify(bankAccountService, never()).getBalance(caseVariant);
+        verify(asyncExchangeService, never()).submitExchange(eq(caseVariant), any());
+    }
+
     @Test
     void shouldReturnStatusOkWhenExchangeCurrencyRequestIsValid() throws Exception {
         //given
@@ -132,6 +265,47 @@ public class BankAccountControllerTest {
         mockMvc.perform(post(Endpoints.BANK_ACCOUNT_EXCHANGE_CURRENCY_ENDPOINT, testUUID).content(objectMapper.writeValueAsString(exchangeCurrencyRequest)).contentType(MediaType.APPLICATION_JSON)).andExpect(status().isOk());
     }
 
+    @Test
+    void shouldReturnStoredResponseWhenExchangeIsRepeatedWithIdempotencyKey() throws Exception {
+        //given
+        String testUUID = UUID.randomUUID().toString();
+        String idempotencyKey = UUID.randomUUID().toString();
+        BigDecimal amountToExchange = BigDecimal.TEN;
+        ExchangeCurrencyRequest exchangeCurrencyRequest = new ExchangeCurrencyRequest(ExchangeType.PLN_TO_USD, amountToExchange);
+        String storedBody = objectMapper.writeValueAsString(new ExchangeCurrencyResponse(new ExchangeDetails(BigDecimal.ZERO, amountToExchange)));
+        doReturn(ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).header(IdempotencyService.IDEMPOTENT_REPLAY_HEADER, "true").body(storedBody))
+                .when(idempotencyService).execute(eq(idempotencyKey), anyString(), eq(exchangeCurrencyRequest), any());
+
+        //when
+        MvcResult result = mockMvc.perform(post(Endpoints.BANK_ACCOUNT_EXCHANGE_CURRENCY_ENDPOINT, testUUID)
+                .header(IdempotencyService.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                .content(objectMapper.writeValueAsString(exchangeCurrencyRequest))
+                .contentType(MediaType.APPLICATION_JSON)).andReturn();
+
+        //then
+        assertEquals(200, result.getResponse().getStatus());
+        assertEquals("true", result.getResponse().getHeader(IdempotencyService.IDEMPOTENT_REPLAY_HEADER));
+        assertEquals(storedBody, result.getResponse().getContentAsString());
+        verify(bankAccountService, never()).exchangeCurrency(any(), any());
+    }
+
+    @Test
+    void shouldReturnStatusBadRequestWhenIdempotencyKeyIsTooLong() throws Exception {
+        //given
+        String testUUID = UUID.randomUUID().toString();
+        ExchangeCurrencyRequest exchangeCurrencyRequest = new ExchangeCurrencyRequest(ExchangeType.PLN_TO_USD, BigDecimal.TEN);
+
+        //when
+        mockMvc.perform(post(Endpoints.BANK_ACCOUNT_EXCHANGE_CURRENCY_ENDPOINT, testUUID)
+                .header(IdempotencyService.IDEMPOTENCY_KEY_HEADER, "k".repeat(256))
+                .content(objectMapper.writeValueAsString(exchangeCurrencyRequest))
+                .contentType(MediaType.APPLICATION_JSON)).andExpect(status().isBadRequest());
+
+        //then
+        verify(idempotencyService, never()).execute(any(), any(), any(), any());
+        verify(bankAccountService, never()).exchangeCurrency(any(), any());
+    }
+
     @Test
     void shouldReturnStatusBadRequestWhenAmountToExchangeIsNegative() throws Exception {
         //given
@@ -155,4 +329,67 @@ public class BankAccountControllerTest {
         //then
         mockMvc.perform(post(Endpoints.BANK_ACCOUNT_EXCHANGE_CURRENCY_ENDPOINT, testUUID).content(objectMapper.writeValueAsString(exchangeCurrencyRequest)).contentType(MediaType.APPLICATION_JSON)).andExpect(status().isBadRequest());
     }
+
+    @Test
+    void shouldReturnStatusAcceptedWhenAsyncExchangeIsSubmitted() throws Exception {
+        //given
+        String testUUID = UUID.randomUUID().toString();
+        String operationId = UUID.randomUUID().toString();
+        BigDecimal amountToExchange = BigDecimal.valueOf(123.23).setScale(2, RoundingMode.CEILING);
+        ExchangeCurrencyRequest exchangeCurrencyRequest = new ExchangeCurrencyRequest(ExchangeType.PLN_TO_USD, amountToExchange);
+
+        //when
+        when(asyncExchangeService.submitExchange(testUUID, exchangeCurrencyRequest)).thenReturn(ExchangeOperation.pending(operationId, testUUID));
+
+        //then
+        mockMvc.perform(post(Endpoints.BANK_ACCOUNT_EXCHANGE_CURRENCY_ASYNC_ENDPOINT, testUUID).content(objectMapper.writeValueAsString(exchangeCurrencyRequest)).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/bank/account/" + testUUID + "/currency/exchange/operation/" + operationId))
+                .andExpect(jsonPath("$.operationId").value(operationId))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+    }
+
+    @Test
+    void shouldReturnStatusTooManyRequestsWhenExchangeQueueIsFull() throws Exception {
+        //given
+        String testUUID = UUID.randomUUID().toString();
+        BigDecimal amountToExchange = BigDecimal.valueOf(123.23).setScale(2, RoundingMode.CEILING);
+        ExchangeCurrencyRequest exchangeCurrencyRequest = new ExchangeCurrencyRequest(ExchangeType.PLN_TO_USD, amountToExchange);
+
+        //when
+        when(asyncExchangeService.submitExchange(testUUID, exchangeCurrencyRequest)).thenThrow(new ExchangeQueueFullException("Exchange queue is full"));
+
+        //then
+        mockMvc.perform(post(Endpoints.BANK_ACCOUNT_EXCHANGE_CURRENCY_ASYNC_ENDPOINT, testUUID).content(objectMapper.writeValueAsString(exchangeCurrencyRequest)).contentType(MediaType.APPLICATION_JSON)).andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void shouldReturnCompletedExchangeOperation() throws Exception {
+        //given
+        String testUUID = UUID.randomUUID().toString();
+        String operationId = UUID.randomUUID().toString();
+        ExchangeDetails details = new ExchangeDetails(BigDecimal.ZERO, BigDecimal.TEN);
+
+        //when
+        when(asyncExchangeService.getOperation(testUUID, operationId)).thenReturn(Optional.of(ExchangeOperation.pending(operationId, testUUID).completed(details)));
+
+        //then
+        mockMvc.perform(get(Endpoints.BANK_ACCOUNT_EXCHANGE_OPERATION_ENDPOINT, testUUID, operationId).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.details.newBalanceUSD").value(10));
+    }
+
+    @Test
+    void shouldReturnStatusNotFoundWhenExchangeOperationIsUnknown() throws Exception {
+        //given
+        String testUUID = UUID.randomUUID().toString();
+        String operationId = UUID.randomUUID().toString();
+
+        //when
+        when(asyncExchangeService.getOperation(testUUID, operationId)).thenReturn(Optional.empty());
+
+        //then
+        mockMvc.perform(get(Endpoints.BANK_ACCOUNT_EXCHANGE_OPERATION_ENDPOINT, testUUID, operationId).contentType(MediaType.APPLICATION_JSON)).andExpect(status().isNotFound());
+    }
 }
@@ -1,18 +1,26 @@
 package com.weljak.currencyexchange.domain;
 
 import com.weljak.currencyexchange.domain.model.BankAccount;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.JpaEntityInformationSupport;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
@@ -21,6 +29,9 @@ public class BankAccountRepositoryTest {
     @Autowired
     private BankAccountRepository bankAccountRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     @AfterEach
     void teardown() {
         bankAccountRepository.deleteAll();
@@ -29,7 +40,7 @@ public class BankAccountRepositoryTest {
     @Test
     void repoShouldSaveNewBankAccount() {
         //given
-        String testUUID = UUID.randomUUID().toString();
+        UUID testUUID = UUID.randomUUID();
         String testName = "John";
         String testSurname = "Doe";
         BigDecimal initialBalancePLN = BigDecimal.ZERO;
@@ -53,7 +64,7 @@ public class BankAccountRepositoryTest {
     @Test
     void repoShouldUpdateExistingData() {
         //given
-        String testUUID = UUID.randomUUID().toString();
+        UUID testUUID = UUID.randomUUID();
         String testName = "John";
         String testSurname = "Doe";
         BigDecimal initialBalancePLN = BigDecimal.ZERO;
@@ -78,10 +89,66 @@ public class BankAccountRepositoryTest {
         assertEquals(updatedUSDBalance, entity.getBalanceUSD());
     }
 
+    @Test
+    void repoShouldIncrementVersionOnUpdate() {
+        //given
+        UUID testUUID = UUID.randomUUID();
+        BankAccount bankAccount = new BankAccount(testUUID, "John", "Doe", BigDecimal.ZERO, BigDecimal.ZERO);
+        bankAccountRepository.saveAndFlush(bankAccount);
+        Optional<Long> initialVersion = bankAccountRepository.findVersionByUuid(testUUID);
+
+        //when
+        BankAccount entity = bankAccountRepository.findByUuid(testUUID).orElseThrow();
+        entity.setBalancePLN(BigDecimal.TEN);
+        bankAccountRepository.saveAndFlush(entity);
+
+        //then
+        assertTrue(initialVersion.isPresent());
+        assertEquals(Optional.of(initialVersion.get() + 1), bankAccountRepository.findVersionByUuid(testUUID));
+        assertTrue(bankAccountRepository.findVersionByUuid(UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    void repoShouldTreatOpenedAccountAsNew() {
+        //given
+        JpaEntityInformation<BankAccount, ?> entityInformation = JpaEntityInformationSupport.getEntityInformation(BankAccount.class, entityManager);
+        BankAccount opened = BankAccount.open(UUID.randomUUID(), "John", "Doe", BigDecimal.TEN);
+
+        //when
+        boolean treatedAsNew = entityInformation.isNew(opened);
+        BankAccount saved = bankAccountRepository.saveAndFlush(opened);
+
+        //then
+        assertTrue(treatedAsNew);
+        assertSame(opened, saved);
+        assertEquals(Long.valueOf(0), saved.getVersion());
+    }
+
+    @Test
+    void repoShouldInsertOpenedAccountsInBatchesWithoutSelectingThem() {
+        //given
+        List<BankAccount> accounts = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            accounts.add(BankAccount.open(UUID.randomUUID(), "John", "Doe", BigDecimal.TEN));
+        }
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        //when
+        bankAccountRepository.saveAll(accounts);
+        entityManager.flush();
+
+        //then
+        assertEquals(250, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() < accounts.size());
+        statistics.setStatisticsEnabled(false);
+    }
+
     @Test
     void repoShouldDeleteData() {
         //given
-        String testUUID = UUID.randomUUID().toString();
+        UUID testUUID = UUID.randomUUID();
         String testName = "John";
         String testSurname = "Doe";
         BigDecimal initialBalancePLN = BigDecimal.ZERO;
@@ -0,0 +1,44 @@
+package com.weljak.currencyexchange.monitoring;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class FlightRecorderEndpointTest {
+    private final FlightRecorderEndpoint endpoint = new FlightRecorderEndpoint();
+
+    @AfterEach
+    void teardown() {
+        endpoint.close();
+    }
+
+    @Test
+    void shouldStartRecordingWithAllowedSettings() {
+        //given
+        String settings = "profile";
+
+        //when
+        Map<String, Object> status = endpoint.start(settings, 60L);
+
+        //then
+        assertEquals("RUNNING", status.get("state"));
+    }
+
+    @Test
+    void shouldRejectSettingsOutsideAllowList() {
+        //given
+        String settings = "../../../../tmp/custom";
+
+        //when
+        InvalidEndpointRequestException exception = assertThrows(InvalidEndpointRequestException.class, () -> endpoint.start(settings, null));
+
+        //then
+        assertEquals("Unknown recording settings", exception.getMessage());
+        assertEquals("NONE", endpoint.stop().get("state"));
+    }
+}
@@ -0,0 +1,132 @@
+package com.weljak.currencyexchange.service;
+
+import com.weljak.currencyexchange.domain.model.ExchangeDetails;
+import com.weljak.currencyexchange.domain.model.ExchangeOperation;
+import com.weljak.currencyexchange.domain.model.ExchangeOperationStatus;
+import com.weljak.currencyexchange.domain.model.ExchangeType;
+import com.weljak.currencyexchange.domain.model.exception.ExchangeQueueFullException;
+import com.weljak.currencyexchange.domain.model.exception.InsufficientFundsException;
+import com.weljak.currencyexchange.webapi.request.ExchangeCurrencyRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClientException;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AsyncExchangeServiceTest {
+    private final BankAccountService bankAccountService = mock(BankAccountService.class);
+    private QueuedAsyncExchangeService asyncExchangeService;
+
+    @AfterEach
+    void teardown() throws InterruptedException {
+        asyncExchangeService.shutdown();
+    }
+
+    @Test
+    void shouldProcessExchangesForOneAccountInSubmissionOrder() throws InterruptedException {
+        //given
+        asyncExchangeService = new QueuedAsyncExchangeService(bankAccountService, new SimpleMeterRegistry(), 4, 100, 100);
+        String testUUID = UUID.randomUUID().toString();
+        List<BigDecimal> processedAmounts = new CopyOnWriteArrayList<>();
+        when(bankAccountService.exchangeCurrency(eq(testUUID), any())).thenAnswer(invocation -> {
+            ExchangeCurrencyRequest request = invocation.getArgument(1);
+            processedAmounts.add(request.getAmountToExchange());
+            return new ExchangeDetails(BigDecimal.ZERO, request.getAmountToExchange());
+        });
+
+        //when
+        ExchangeOperation last = null;
+        for (int i = 1; i <= 50; i++) {
+            last = asyncExchangeService.submitExchange(testUUID, new ExchangeCurrencyRequest(ExchangeType.PLN_TO_USD, BigDecimal.valueOf(i)));
+        }
+        awaitStatus(testUUID, last.getId(), ExchangeOperationStatus.COMPLETED);
+
+        //then
+        assertEquals(50, processedAmounts.size());
+        for (int i = 0; i < 50; i++) {
+            assertEquals(BigDecimal.valueOf(i + 1), processedAmounts.get(i));
+        }
+    }
+
+    @Test
+    void shouldRecordFailureReasonWhenExchangeFails() throws InterruptedException {
+        //given
+        asyncExchangeService = new QueuedAsyncExchangeService(bankAccountService, new SimpleMeterRegistry(), 1, 10, 10);
+        String testUUID = UUID.randomUUID().toString();
+        when(bankAccountService.exchangeCurrency(eq(testUUID), any())).thenThrow(new InsufficientFundsException("Not enough funds on account to exchange currency"));
+
+        //when
+        ExchangeOperation operation = asyncExchangeService.submitExchange(testUUID, new ExchangeCurrencyRequest(ExchangeType.PLN_TO_USD, BigDecimal.TEN));
+        ExchangeOperation result = awaitStatus(testUUID, operation.getId(), ExchangeOperationStatus.FAILED);
+
+        //then
+        assertEquals(QueuedAsyncExchangeService.NOT_ENOUGH_FUNDS, result.getFailureReason());
+        assertTrue(asyncExchangeService.getOperation(UUID.randomUUID().toString(), operation.getId()).isEmpty());
+    }
+
+    @Test
+    void shouldNotExposeInternalErrorDetailsInFailureReason() throws InterruptedException {
+        //given
+        asyncExchangeService = new QueuedAsyncExchangeService(bankAccountService, new SimpleMeterRegistry(), 1, 10, 10);
+        String testUUID = UUID.randomUUID().toString();
+        when(bankAccountService.exchangeCurrency(eq(testUUID), any())).thenThrow(new RestClientException("I/O error on GET request for \"https://api.nbp.pl/api/exchangerates/rates/c/usd\""));
+
+        //when
+        ExchangeOperation operation = asyncExchangeService.submitExchange(testUUID, new ExchangeCurrencyRequest(ExchangeType.PLN_TO_USD, BigDecimal.TEN));
+        ExchangeOperation result = awaitStatus(testUUID, operation.getId(), ExchangeOperationStatus.FAILED);
+
+        //then
+        assertEquals(QueuedAsyncExchangeService.EXTERNAL_SERVICE_ERROR, result.getFailureReason());
+    }
+
+    @Test
+    void shouldRejectExchangeWhenQueueIsFull() throws InterruptedException {
+        //given
+        asyncExchangeService = new QueuedAsyncExchangeService(bankAccountService, new SimpleMeterRegistry(), 1, 1, 10);
+        String testUUID = UUID.randomUUID().toString();
+        CountDownLatch workerStarted = new CountDownLatch(1);
+        CountDownLatch releaseWorker = new CountDownLatch(1);
+        when(bankAccountService.exchangeCurrency(eq(testUUID), any())).thenAnswer(invocation -> {
+            workerStarted.countDown();
+            releaseWorker.await();
+            return new ExchangeDetails(BigDecimal.ZERO, BigDecimal.ZERO);
+        });
+        ExchangeCurrencyRequest request = new ExchangeCurrencyRequest(ExchangeType.PLN_TO_USD, BigDecimal.ONE);
+
+        try {
+            //when
+            asyncExchangeService.submitExchange(testUUID, request);
+            assertTrue(workerStarted.await(5, TimeUnit.SECONDS));
+            asyncExchangeService.submitExchange(testUUID, request);
+
+            //then
+            assertThrows(ExchangeQueueFullException.class, () -> asyncExchangeService.submitExchange(testUUID, request));
+        } finally {
+            releaseWorker.countDown();
+        }
+    }
+
+    private ExchangeOperation awaitStatus(String id, String operationId, ExchangeOperationStatus status) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (System.currentTimeMillis() < deadline) {
+            ExchangeOperation operation = asyncExchangeService.getOperation(id, operationId).orElseThrow();
+            if (operation.getStatus() == status) {
+                return operation;
+            }
+            Thread.sleep(10);
+        }
+        return fail("Operation " + operationId + " did not reach status " + status);
+    }
+}
@@ -11,9 +11,14 @@ import com.weljak.currencyexchange.domain.model.ExchangeType;
 import com.weljak.currencyexchange.domain.model.exception.AccountNotFoundException;
 import com.weljak.currencyexchange.domain.model.exception.InsufficientFundsException;
 import com.weljak.currencyexchange.domain.model.external.ExchangeRateDetailsDto;
+import com.weljak.currencyexchange.monitoring.ExchangeCurrencyEvent;
+import com.weljak.currencyexchange.monitoring.NbpRateFetchEvent;
 import com.weljak.currencyexchange.webapi.request.CreateBankAccountRequest;
 import com.weljak.currencyexchange.webapi.request.ExchangeCurrencyRequest;
 import com.weljak.currencyexchange.webapi.response.CreateBankAccountResponse;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,6 +30,9 @@ import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -45,6 +53,9 @@ public class BankAccountServiceTest {
     @Autowired
     BankAccountService bankAccountService;
 
+    @Autowired
+    AccountIdFilter accountIdFilter;
+
     private static final ObjectMapper objectMapper = new ObjectMapper();
 
     @AfterEach
@@ -73,16 +84,17 @@ public class BankAccountServiceTest {
     void shouldExchangeCurrency() {
         //given
         int scale = 2;
-        String testUUID = UUID.randomUUID().toString();
+        UUID testUUID = UUID.randomUUID();
         ExchangeType exchangeType = ExchangeType.PLN_TO_USD;
         BigDecimal amountToExchange = BigDecimal.valueOf(123.23).setScale(scale, RoundingMode.CEILING);
         BigDecimal expectedUsdBalance = BigDecimal.valueOf(29.00).setScale(scale, RoundingMode.CEILING);
         ExchangeCurrencyRequest exchangeCurrencyRequest = new ExchangeCurrencyRequest(exchangeType, amountToExchange);
+        accountIdFilter.add(testUUID);
 
         //when
         when(restTemplate.getForEntity(EXTERNAL_USD_CURRENCY_RATE_ENDPOINT, ExchangeRateDetailsDto.class)).thenReturn(ResponseEntity.ok(getStubbedExchangeRate()));
         when(repository.findByUuid(testUUID)).thenReturn(Optional.of(new BankAccount(testUUID, "testName", "testSurname", amountToExchange, BigDecimal.ZERO)));
-        ExchangeDetails result = bankAccountService.exchangeCurrency(testUUID, exchangeCurrencyRequest);
+        ExchangeDetails result = bankAccountService.exchangeCurrency(testUUID.toString(), exchangeCurrencyRequest);
 
         //then
         verify(restTemplate).getForEntity(EXTERNAL_USD_CURRENCY_RATE_ENDPOINT, ExchangeRateDetailsDto.class);
@@ -95,28 +107,30 @@ public class BankAccountServiceTest {
     @Test
     void shouldThrowExceptionWhenInsufficientFunds() {
         //given
-        String testUUID = UUID.randomUUID().toString();
+        UUID testUUID = UUID.randomUUID();
         ExchangeType exchangeType = ExchangeType.PLN_TO_USD;
         BigDecimal amountToExchange = BigDecimal.valueOf(123.23).setScale(2, RoundingMode.CEILING);
         ExchangeCurrencyRequest exchangeCurrencyRequest = new ExchangeCurrencyRequest(exchangeType, amountToExchange);
+        accountIdFilter.add(testUUID);
 
         //when
         when(repository.findByUuid(testUUID)).thenReturn(Optional.of(new BankAccount(testUUID, "testName", "testSurname", amountToExchange.subtract(BigDecimal.TEN), BigDecimal.ZERO)));
-        assertThrows(InsufficientFundsException.class, () -> bankAccountService.exchangeCurrency(testUUID, exchangeCurrencyRequest));
+        assertThrows(InsufficientFundsException.class, () -> bankAccountService.exchangeCurrency(testUUID.toString(), exchangeCurrencyRequest));
     }
 
     @Test
     void shouldReturnAccountBalance() {
         // given
-        String testUUID = UUID.randomUUID().toString();
+        UUID testUUID = UUID.randomUUID();
         String testName = "testName";
         String testSurname = "testSurname";
         BigDecimal plnBalance = BigDecimal.valueOf(1222.31);
         BigDecimal usdBalance = BigDecimal.TEN;
+        accountIdFilter.add(testUUID);
 
         //when
         when(repository.findByUuid(testUUID)).thenReturn(Optional.of(new BankAccount(testUUID, testName, testSurname, plnBalance, usdBalance)));
-        BalanceDetails balanceDetails = bankAccountService.getBalance(testUUID);
+        BalanceDetails balanceDetails = bankAccountService.getBalance(testUUID.toString());
 
         //then
         assertNotNull(balanceDetails);
@@ -129,11 +143,69 @@ public class BankAccountServiceTest {
     @Test
     void shouldThrowExceptionWhenBankAccountDoesNotExist() {
         // given
-        String testUUID = UUID.randomUUID().toString();
+        UUID testUUID = UUID.randomUUID();
 
         //when
         when(repository.findById(testUUID)).thenReturn(Optional.empty());
-        assertThrows(AccountNotFoundException.class, () -> bankAccountService.getBalance(testUUID));
+        assertThrows(AccountNotFoundException.class, () -> bankAccountService.getBalance(testUUID.toString()));
+    }
+
+    @Test
+    void shouldRejectUnknownAccountWithoutQueryingRepository() {
+        // given
+        UUID testUUID = UUID.randomUUID();
+
+        //when
+        assertThrows(AccountNotFoundException.class, () -> bankAccountService.getBalance(testUUID.toString()));
+
+        //then
+        verify(repository, never()).findByUuid(testUUID);
+    }
+
+    @Test
+    void shouldRegisterCreatedAccountInIdFilter() {
+        //given
+        CreateBankAccountRequest request = new CreateBankAccountRequest("John", "Doe", BigDecimal.ZERO);
+
+        //when
+        CreateBankAccountResponse result = bankAccountService.createBankAccount(request);
+
+        //then
+        assertTrue(accountIdFilter.mightExist(UUID.fromString(result.getId())));
+    }
+
+    @Test
+    void shouldRecordFlightRecorderEventsForExchange() throws Exception {
+        //given
+        UUID testUUID = UUID.randomUUID();
+        BigDecimal amountToExchange = BigDecimal.valueOf(123.23).setScale(2, RoundingMode.CEILING);
+        ExchangeCurrencyRequest exchangeCurrencyRequest = new ExchangeCurrencyRequest(ExchangeType.PLN_TO_USD, amountToExchange);
+        accountIdFilter.add(testUUID);
+        when(restTemplate.getForEntity(EXTERNAL_USD_CURRENCY_RATE_ENDPOINT, ExchangeRateDetailsDto.class)).thenReturn(ResponseEntity.ok(getStubbedExchangeRate()));
+        when(repository.findByUuid(testUUID)).thenReturn(Optional.of(new BankAccount(testUUID, "testName", "testSurname", amountToExchange, BigDecimal.ZERO)));
+        Path dump = Files.createTempFile("exchange-events", ".jfr");
+
+        //when
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(ExchangeCurrencyEvent.class);
+            recording.enable(NbpRateFetchEvent.class);
+            recording.start();
+            bankAccountService.exchangeCurrency(testUUID.toString(), exchangeCurrencyRequest);
+            recording.stop();
+            recording.dump(dump);
+            events = RecordingFile.readAllEvents(dump);
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+
+        //then
+        RecordedEvent exchangeEvent = events.stream().filter(event -> event.getEventType().getName().equals("com.weljak.currencyexchange.ExchangeCurrency")).findFirst().orElseThrow();
+        assertEquals(testUUID.toString(), exchangeEvent.getString("accountId"));
+        assertEquals("PLN_TO_USD", exchangeEvent.getString("exchangeType"));
+        assertEquals("COMPLETED", exchangeEvent.getString("outcome"));
+        RecordedEvent rateFetchEvent = events.stream().filter(event -> event.getEventType().getName().equals("com.weljak.currencyexchange.NbpRateFetch")).findFirst().orElseThrow();
+        assertEquals(200, rateFetchEvent.getInt("statusCode"));
     }
 
     private static ExchangeRateDetailsDto getStubbedExchangeRate() {
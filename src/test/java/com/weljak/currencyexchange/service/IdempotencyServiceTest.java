@@ -0,0 +1,254 @@
+package com.weljak.currencyexchange.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weljak.currencyexchange.domain.BankAccountRepository;
+import com.weljak.currencyexchange.domain.IdempotencyRecordRepository;
+import com.weljak.currencyexchange.domain.model.BankAccount;
+import com.weljak.currencyexchange.domain.model.ExchangeDetails;
+import com.weljak.currencyexchange.domain.model.ExchangeType;
+import com.weljak.currencyexchange.domain.model.IdempotencyRecord;
+import com.weljak.currencyexchange.domain.model.exception.IdempotencyKeyReusedException;
+import com.weljak.currencyexchange.domain.model.exception.InsufficientFundsException;
+import com.weljak.currencyexchange.webapi.request.ExchangeCurrencyRequest;
+import com.weljak.currencyexchange.webapi.response.ExchangeCurrencyResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+public class IdempotencyServiceTest {
+    private static final String OPERATION = "/bank/account/test/currency/exchange";
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final ExchangeCurrencyRequest request = new ExchangeCurrencyRequest(ExchangeType.PLN_TO_USD, BigDecimal.TEN);
+
+    @AfterEach
+    void teardown() {
+        idempotencyRecordRepository.deleteAll();
+    }
+
+    @Test
+    void shouldReplayStoredResponseWithoutRunningActionAgain() throws Exception {
+        //given
+        String key = UUID.randomUUID().toString();
+        AtomicInteger executions = new AtomicInteger();
+
+        //when
+        ResponseEntity<?> first = idempotencyService.execute(key, OPERATION, request, countingExchange(executions));
+        ResponseEntity<?> second = idempotencyService.execute(key, OPERATION, request, countingExchange(executions));
+
+        //then
+        assertEquals(1, executions.get());
+        assertEquals(200, second.getStatusCode().value());
+        assertEquals("true", second.getHeaders().getFirst(IdempotencyService.IDEMPOTENT_REPLAY_HEADER));
+        assertEquals(objectMapper.writeValueAsString(first.getBody()), second.getBody());
+    }
+
+    @Test
+    void shouldRunConcurrentDuplicatesOnce() throws Exception {
+        //given
+        String key = UUID.randomUUID().toString();
+        AtomicInteger executions = new AtomicInteger();
+        Supplier<ResponseEntity<?>> slowExchange = () -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            return countingExchange(executions).get();
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+
+        //when
+        List<Future<ResponseEntity<?>>> responses = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            responses.add(executor.submit(() -> {
+                start.await();
+                return idempotencyService.execute(key, OPERATION, request, slowExchange);
+            }));
+        }
+        start.countDown();
+        List<Integer> statuses = new ArrayList<>();
+        for (Future<ResponseEntity<?>> response : responses) {
+            statuses.add(response.get().getStatusCode().value());
+        }
+        executor.shutdown();
+
+        //then
+        assertEquals(1, executions.get());
+        assertTrue(statuses.stream().allMatch(status -> status == 200));
+    }
+
+    @Test
+    void shouldRejectKeyReusedForDifferentRequest() {
+        //given
+        String key = UUID.randomUUID().toString();
+        AtomicInteger executions = new AtomicInteger();
+        ExchangeCurrencyRequest otherRequest = new ExchangeCurrencyRequest(ExchangeType.PLN_TO_USD, BigDecimal.ONE);
+
+        //when
+        idempotencyService.execute(key, OPERATION, request, countingExchange(executions));
+
+        //then
+        assertThrows(IdempotencyKeyReusedException.class, () -> idempotencyService.execute(key, OPERATION, otherRequest, countingExchange(executions)));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void shouldReplayResponseStoredInDatabaseAfterRestart() {
+        //given
+        String key = UUID.randomUUID().toString();
+        AtomicInteger executions = new AtomicInteger();
+        ResponseEntity<?> first = idempotencyService.execute(key, OPERATION, request, countingExchange(executions));
+        H2IdempotencyService restarted = new H2IdempotencyService(idempotencyRecordRepository, transactionManager, objectMapper, 60, 100, 1000);
+
+        //when
+        ResponseEntity<?> replayed = restarted.execute(key, OPERATION, request, countingExchange(executions));
+
+        //then
+        assertEquals(1, executions.get());
+        assertEquals(first.getStatusCode(), replayed.getStatusCode());
+        assertTrue(idempotencyRecordRepository.existsById(key));
+    }
+
+    @Test
+    void shouldRunActionAgainWhenFirstExecutionFailed() {
+        //given
+        String key = UUID.randomUUID().toString();
+        AtomicInteger executions = new AtomicInteger();
+        assertThrows(InsufficientFundsException.class, () -> idempotencyService.execute(key, OPERATION, request, () -> {
+            throw new InsufficientFundsException("Not enough funds on account to exchange currency");
+        }));
+
+        //when
+        ResponseEntity<?> response = idempotencyService.execute(key, OPERATION, request, countingExchange(executions));
+
+        //then
+        assertEquals(1, executions.get());
+        assertNull(response.getHeaders().getFirst(IdempotencyService.IDEMPOTENT_REPLAY_HEADER));
+        assertFalse(idempotencyRecordRepository.findById(key).isEmpty());
+    }
+
+    @Test
+    void shouldRollBackActionWhenAnotherNodeStoresResponseForSameKeyFirst() {
+        //given
+        String key = UUID.randomUUID().toString();
+        String fingerprint = fingerprintOf(request);
+        String storedByOtherNode = "{\"details\":\"stored by other node\"}";
+        UUID accountId = UUID.randomUUID();
+        AtomicInteger executions = new AtomicInteger();
+        TransactionTemplate otherNode = new TransactionTemplate(transactionManager);
+        otherNode.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Supplier<ResponseEntity<?>> racingExchange = () -> {
+            bankAccountRepository.save(BankAccount.open(accountId, "John", "Doe", BigDecimal.TEN));
+            // commits between this node's lookup of the key and its own insert
+            otherNode.executeWithoutResult(status -> idempotencyRecordRepository.saveAndFlush(
+                    new IdempotencyRecord(key, fingerprint, 200, storedByOtherNode, Instant.now().plus(Duration.ofHours(1)))));
+            return countingExchange(executions).get();
+        };
+
+        //when
+        ResponseEntity<?> response = idempotencyService.execute(key, OPERATION, request, racingExchange);
+
+        //then
+        assertEquals(1, executions.get());
+        assertEquals("true", response.getHeaders().getFirst(IdempotencyService.IDEMPOTENT_REPLAY_HEADER));
+        assertEquals(storedByOtherNode, response.getBody());
+        assertEquals(storedByOtherNode, idempotencyRecordRepository.findById(key).orElseThrow().getBody());
+        assertFalse(bankAccountRepository.existsById(accountId));
+    }
+
+    @Test
+    void shouldReplayResponseLongerThanFourThousandCharacters() throws Exception {
+        //given
+        String key = UUID.randomUUID().toString();
+        String largeBody = "x".repeat(20_000);
+        AtomicInteger executions = new AtomicInteger();
+        Supplier<ResponseEntity<?>> largeResponse = () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.ok(largeBody);
+        };
+        idempotencyService.execute(key, OPERATION, request, largeResponse);
+        H2IdempotencyService restarted = new H2IdempotencyService(idempotencyRecordRepository, transactionManager, objectMapper, 60, 100, 1000);
+
+        //when
+        ResponseEntity<?> replayed = restarted.execute(key, OPERATION, request, largeResponse);
+
+        //then
+        assertEquals(1, executions.get());
+        assertEquals(objectMapper.writeValueAsString(largeBody), replayed.getBody());
+    }
+
+    @Test
+    void shouldPurgeExpiredRecordsAndRunActionAgainForTheirKeys() throws Exception {
+        //given
+        H2IdempotencyService shortLived = new H2IdempotencyService(idempotencyRecordRepository, transactionManager, objectMapper, 0, 100, 1000);
+        String expiredKey = UUID.randomUUID().toString();
+        String liveKey = UUID.randomUUID().toString();
+        AtomicInteger executions = new AtomicInteger();
+        shortLived.execute(expiredKey, OPERATION, request, countingExchange(executions));
+        idempotencyService.execute(liveKey, OPERATION, request, countingExchange(executions));
+        Thread.sleep(10);
+
+        //when
+        shortLived.purgeExpired();
+
+        //then
+        assertFalse(idempotencyRecordRepository.existsById(expiredKey));
+        assertTrue(idempotencyRecordRepository.existsById(liveKey));
+        ResponseEntity<?> again = shortLived.execute(expiredKey, OPERATION, request, countingExchange(executions));
+        assertEquals(3, executions.get());
+        assertNull(again.getHeaders().getFirst(IdempotencyService.IDEMPOTENT_REPLAY_HEADER));
+    }
+
+    // the fingerprint the service stores for a request, read back from a record it wrote
+    private String fingerprintOf(ExchangeCurrencyRequest exchangeRequest) {
+        String probeKey = UUID.randomUUID().toString();
+        idempotencyService.execute(probeKey, OPERATION, exchangeRequest, countingExchange(new AtomicInteger()));
+        return idempotencyRecordRepository.findById(probeKey).orElseThrow().getFingerprint();
+    }
+
+    private static Supplier<ResponseEntity<?>> countingExchange(AtomicInteger executions) {
+        return () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.ok(new ExchangeCurrencyResponse(new ExchangeDetails(BigDecimal.ZERO, BigDecimal.TEN)));
+        };
+    }
+}
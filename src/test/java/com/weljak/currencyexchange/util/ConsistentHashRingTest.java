@@ -0,0 +1,75 @@
+package com.weljak.currencyexchange.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConsistentHashRingTest {
+    private static final List<String> MEMBERS = List.of("http://localhost:8081", "http://localhost:8082", "http://localhost:8083");
+
+    @Test
+    void shouldSpreadTimeOrderedIdsEvenlyAcrossMembers() {
+        //given
+        ConsistentHashRing ring = new ConsistentHashRing(MEMBERS, 128);
+        int ids = 30_000;
+
+        //when
+        Map<String, Integer> owned = new HashMap<>();
+        for (int i = 0; i < ids; i++) {
+            owned.merge(ring.owner(TimeOrderedUuidGenerator.next()), 1, Integer::sum);
+        }
+
+        //then
+        assertEquals(MEMBERS.size(), owned.size());
+        owned.values().forEach(count -> assertTrue(Math.abs(count - ids / MEMBERS.size()) < ids / MEMBERS.size() * 0.2, "Uneven ownership: " + owned));
+    }
+
+    @Test
+    void shouldAssignSameOwnerOnEveryNode() {
+        //given
+        ConsistentHashRing ring = new ConsistentHashRing(MEMBERS, 128);
+        ConsistentHashRing otherNodeRing = new ConsistentHashRing(List.of(MEMBERS.get(2), MEMBERS.get(0), MEMBERS.get(1)), 128);
+
+        //when
+        int disagreements = 0;
+        for (int i = 0; i < 1000; i++) {
+            UUID id = UUID.randomUUID();
+            if (!ring.owner(id).equals(otherNodeRing.owner(id))) {
+                disagreements++;
+            }
+        }
+
+        //then
+        assertEquals(0, disagreements);
+    }
+
+    @Test
+    void shouldOnlyMoveIdsToNewMemberWhenMemberIsAdded() {
+        //given
+        ConsistentHashRing ring = new ConsistentHashRing(MEMBERS, 128);
+        String newMember = "http://localhost:8084";
+        ConsistentHashRing grownRing = new ConsistentHashRing(List.of(MEMBERS.get(0), MEMBERS.get(1), MEMBERS.get(2), newMember), 128);
+
+        //when
+        int moved = 0;
+        int ids = 10_000;
+        for (int i = 0; i < ids; i++) {
+            UUID id = UUID.randomUUID();
+            String before = ring.owner(id);
+            String after = grownRing.owner(id);
+            if (!before.equals(after)) {
+                assertEquals(newMember, after);
+                moved++;
+            }
+        }
+
+        //then
+        assertTrue(moved < ids * 0.35, "Too many ids moved: " + moved);
+    }
+}
@@ -0,0 +1,78 @@
+package com.weljak.currencyexchange.util;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RateLimitedLoggerTest {
+    @Test
+    void shouldNotExceedLimitWhenLoggingFromManyThreads() throws Exception {
+        //given
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        RateLimitedLogger rateLimitedLogger = new RateLimitedLogger(listLogger(appender), 5);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        long startNanos = System.nanoTime();
+
+        //when
+        List<Future<?>> writers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            writers.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < 10_000; j++) {
+                    rateLimitedLogger.warn("{} for request: {}", "Account not found", "/bank/account/balance");
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        long elapsedSeconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos);
+        executor.shutdown();
+
+        //then
+        assertTrue(appender.list.size() <= 5 * (elapsedSeconds + 1));
+    }
+
+    @Test
+    void shouldReportSuppressedMessagesWithNextWrittenMessage() throws Exception {
+        //given
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        RateLimitedLogger rateLimitedLogger = new RateLimitedLogger(listLogger(appender), 1);
+        rateLimitedLogger.warn("first");
+        rateLimitedLogger.warn("suppressed");
+        rateLimitedLogger.warn("suppressed");
+
+        //when
+        Thread.sleep(1100);
+        rateLimitedLogger.warn("after window");
+
+        //then
+        assertEquals(2, appender.list.size());
+        assertEquals("after window (2 similar messages suppressed)", appender.list.get(1).getFormattedMessage());
+    }
+
+    private static Logger listLogger(ListAppender<ILoggingEvent> appender) {
+        LoggerContext context = new LoggerContext();
+        appender.setContext(context);
+        appender.start();
+        Logger logger = context.getLogger(RateLimitedLoggerTest.class);
+        logger.addAppender(appender);
+        return logger;
+    }
+}
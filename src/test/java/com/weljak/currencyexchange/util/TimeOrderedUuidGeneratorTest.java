@@ -0,0 +1,30 @@
+package com.weljak.currencyexchange.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TimeOrderedUuidGeneratorTest {
+    @Test
+    void shouldGenerateVersion7UuidsInIncreasingOrder() {
+        //given
+        long before = System.currentTimeMillis();
+        UUID previous = TimeOrderedUuidGenerator.next();
+
+        //when
+        for (int i = 0; i < 100_000; i++) {
+            UUID next = TimeOrderedUuidGenerator.next();
+
+            //then
+            assertEquals(7, next.version());
+            assertEquals(2, next.variant());
+            assertTrue(Long.compareUnsigned(previous.getMostSignificantBits(), next.getMostSignificantBits()) < 0);
+            assertEquals(next, UUID.fromString(next.toString()));
+            previous = next;
+        }
+        assertTrue((previous.getMostSignificantBits() >>> 16) >= before);
+    }
+}
@@ -0,0 +1,49 @@
+package com.weljak.currencyexchange.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UuidBloomFilterTest {
+    @Test
+    void shouldContainEveryInsertedId() {
+        //given
+        UuidBloomFilter filter = UuidBloomFilter.create(10_000, 0.01);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(UUID.randomUUID());
+        }
+
+        //when
+        ids.forEach(filter::put);
+
+        //then
+        ids.forEach(id -> assertTrue(filter.mightContain(id)));
+        assertEquals(10_000, filter.insertions());
+    }
+
+    @Test
+    void shouldKeepFalsePositiveRateCloseToConfiguredRate() {
+        //given
+        UuidBloomFilter filter = UuidBloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(UUID.randomUUID());
+        }
+
+        //when
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(UUID.randomUUID())) falsePositives++;
+        }
+
+        //then
+        assertTrue((double) falsePositives / probes < 0.02);
+        assertTrue(filter.expectedFalsePositiveRate() < 0.02);
+    }
+}
@@ -0,0 +1,200 @@
+package com.weljak.currencyexchange.webapi.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weljak.currencyexchange.domain.model.ExchangeDetails;
+import com.weljak.currencyexchange.domain.model.ExchangeType;
+import com.weljak.currencyexchange.domain.model.exception.RateLimitExceededException;
+import com.weljak.currencyexchange.service.BankAccountService;
+import com.weljak.currencyexchange.util.Endpoints;
+import com.weljak.currencyexchange.webapi.request.ExchangeCurrencyRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+public class AdmissionControlTest {
+    // refills so slowly that no token is added while a test runs
+    private static final double NO_REFILL = 0.0001;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private BankAccountService bankAccountService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void shouldLimitRequestsPerAccount() {
+        //given
+        AccountRateLimiter limiter = new AccountRateLimiter(NO_REFILL, 3, 100);
+        String abusive = UUID.randomUUID().toString();
+        String wellBehaved = UUID.randomUUID().toString();
+
+        //when
+        int admitted = 0;
+        for (int i = 0; i < 10; i++) {
+            if (limiter.tryAcquire(abusive)) admitted++;
+        }
+
+        //then
+        assertEquals(3, admitted);
+        assertTrue(limiter.tryAcquire(wellBehaved));
+    }
+
+    @Test
+    void shouldKeepNumberOfTrackedAccountsBounded() {
+        //given
+        AccountRateLimiter limiter = new AccountRateLimiter(NO_REFILL, 3, 100);
+
+        //when
+        for (int i = 0; i < 1000; i++) {
+            limiter.tryAcquire(UUID.randomUUID().toString());
+        }
+
+        //then
+        assertTrue(limiter.trackedAccounts() <= 100);
+    }
+
+    @Test
+    void shouldNotResetThrottledAccountWhenClientChurnsNewIds() {
+        //given
+        AccountRateLimiter limiter = new AccountRateLimiter(NO_REFILL, 3, 100);
+        String abusive = UUID.randomUUID().toString();
+        while (limiter.tryAcquire(abusive)) {
+            // drain the abusive account's burst
+        }
+
+        //when
+        for (int i = 0; i < 10_000; i++) {
+            limiter.tryAcquire(UUID.randomUUID().toString());
+        }
+
+        //then
+        assertFalse(limiter.tryAcquire(abusive));
+    }
+
+    @Test
+    void shouldShedRequestsOverConcurrencyLimitWithoutSpendingAccountTokens() {
+        //given
+        AdmissionControlInterceptor interceptor = new AdmissionControlInterceptor(1, NO_REFILL, 1, 100);
+        MockHttpServletRequest inFlight = accountRequest(UUID.randomUUID().toString());
+        String account = UUID.randomUUID().toString();
+        assertTrue(interceptor.preHandle(inFlight, new MockHttpServletResponse(), null));
+
+        //when
+        RateLimitExceededException shed = assertThrows(RateLimitExceededException.class,
+                () -> interceptor.preHandle(accountRequest(account), new MockHttpServletResponse(), null));
+        interceptor.afterCompletion(inFlight, new MockHttpServletResponse(), null, null);
+
+        //then
+        assertEquals("Too many concurrent requests", shed.getMessage());
+        assertTrue(interceptor.preHandle(accountRequest(account), new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    void shouldReleaseConcurrencyPermitWhenAccountIsRateLimited() {
+        //given
+        AdmissionControlInterceptor interceptor = new AdmissionControlInterceptor(1, NO_REFILL, 1, 100);
+        String abusive = UUID.randomUUID().toString();
+        MockHttpServletRequest first = accountRequest(abusive);
+        interceptor.preHandle(first, new MockHttpServletResponse(), null);
+        interceptor.afterCompletion(first, new MockHttpServletResponse(), null, null);
+
+        //when
+        RateLimitExceededException limited = assertThrows(RateLimitExceededException.class,
+                () -> interceptor.preHandle(accountRequest(abusive), new MockHttpServletResponse(), null));
+
+        //then
+        assertEquals("Rate limit exceeded for account", limited.getMessage());
+        assertTrue(interceptor.preHandle(accountRequest(UUID.randomUUID().toString()), new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    void shouldKeepAdmittingWellBehavedAccountsWhileOneAccountIsAbused() {
+        //given
+        AdmissionControlInterceptor interceptor = new AdmissionControlInterceptor(64, NO_REFILL, 3, 100);
+        String abusive = UUID.randomUUID().toString();
+        List<String> wellBehaved = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            wellBehaved.add(UUID.randomUUID().toString());
+        }
+
+        //when
+        int abusiveAdmitted = 0;
+        int wellBehavedRejected = 0;
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 50; i++) {
+                if (admit(interceptor, abusive)) abusiveAdmitted++;
+            }
+            for (String account : wellBehaved) {
+                if (!admit(interceptor, account)) wellBehavedRejected++;
+            }
+        }
+
+        //then
+        assertEquals(3, abusiveAdmitted);
+        assertEquals(0, wellBehavedRejected);
+    }
+
+    @Test
+    void shouldRespondWithTooManyRequestsWhenAccountExceedsItsBurst() throws Exception {
+        //given
+        when(bankAccountService.exchangeCurrency(anyString(), any())).thenReturn(new ExchangeDetails(BigDecimal.ZERO, BigDecimal.ONE));
+        String body = objectMapper.writeValueAsString(new ExchangeCurrencyRequest(ExchangeType.PLN_TO_USD, BigDecimal.ONE));
+        String account = UUID.randomUUID().toString();
+
+        //when
+        int rejected = 0;
+        for (int i = 0; i < 100; i++) {
+            int status = mockMvc.perform(post(Endpoints.BANK_ACCOUNT_EXCHANGE_CURRENCY_ENDPOINT, account).content(body).contentType(MediaType.APPLICATION_JSON))
+                    .andReturn()
+                    .getResponse()
+                    .getStatus();
+            if (status == 429) rejected++;
+        }
+
+        //then
+        assertTrue(rejected > 0);
+    }
+
+    private static boolean admit(AdmissionControlInterceptor interceptor, String account) {
+        MockHttpServletRequest request = accountRequest(account);
+        try {
+            interceptor.preHandle(request, new MockHttpServletResponse(), null);
+            return true;
+        } catch (RateLimitExceededException exception) {
+            return false;
+        } finally {
+            interceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+        }
+    }
+
+    private static MockHttpServletRequest accountRequest(String account) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/bank/account/" + account + "/currency/exchange");
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("id", account));
+        return request;
+    }
+}
@@ -0,0 +1,170 @@
+package com.weljak.currencyexchange.training;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.weljak.currencyexchange.domain.model.ExchangeType;
+import com.weljak.currencyexchange.service.IdempotencyService;
+import com.weljak.currencyexchange.util.Endpoints;
+import com.weljak.currencyexchange.webapi.request.CreateBankAccountRequest;
+import com.weljak.currencyexchange.webapi.request.ExchangeCurrencyRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the AppCDS archive for the fast startup mode. Starts build/cds/application.jar in a separate JVM with
+ * {@code -XX:ArchiveClassesAtExit}, sends it the requests it serves in production, so the archive also holds the
+ * classes loaded on the first request of each kind: account creation, balance reads, exchanges in both directions
+ * with an NBP rate lookup, an idempotent replay and the business rejections. Then it stops the application, which
+ * writes the archive on exit. The NBP API is replaced by a local stub.
+ * <p>
+ * This class is only on the classpath of the cdsArchive build task, the application itself runs unchanged. The
+ * arguments are the JVM options the application is later started with, the training JVM must use the same ones.
+ */
+public class TrainingRun {
+    private static final int WORKLOAD_ROUNDS = 20;
+    private static final String ARCHIVE_FILE = "application.jsa";
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(60);
+    private static final String NBP_RATE_PATH = "/api/exchangerates/rates/c/usd";
+    private static final byte[] NBP_RATE_BODY = """
+            {"table":"C","currency":"dolar amerykański","code":"USD","rates":[{"no":"205/C/NBP/2023","effectiveDate":"2023-10-23","bid":4.1640,"ask":4.2482}]}
+            """.getBytes(StandardCharsets.UTF_8);
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final String baseUrl;
+
+    private TrainingRun(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Files.deleteIfExists(Path.of(ARCHIVE_FILE));
+        HttpServer nbpStub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        nbpStub.createContext(NBP_RATE_PATH, TrainingRun::serveRate);
+        nbpStub.start();
+        try {
+            int port = freePort();
+            List<String> command = new ArrayList<>(List.of("java", "-XX:ArchiveClassesAtExit=" + ARCHIVE_FILE));
+            command.addAll(List.of(args));
+            command.addAll(List.of(
+                    "-Dnbp.api.usd-rate-url=http://localhost:" + nbpStub.getAddress().getPort() + NBP_RATE_PATH,
+                    "-jar", "application.jar", "--server.port=" + port));
+            Process application = new ProcessBuilder(command).inheritIO().start();
+            try {
+                TrainingRun trainingRun = new TrainingRun("http://localhost:" + port);
+                trainingRun.awaitReady(application);
+                for (int round = 0; round < WORKLOAD_ROUNDS; round++) {
+                    trainingRun.runRound();
+                }
+                System.out.printf("Training workload sent %d rounds of requests%n", WORKLOAD_ROUNDS);
+            } finally {
+                // a normal shutdown, the archive is written when the JVM exits
+                application.destroy();
+                if (!application.waitFor(30, TimeUnit.SECONDS)) {
+                    application.destroyForcibly();
+                }
+            }
+        } finally {
+            nbpStub.stop(0);
+        }
+        if (!Files.exists(Path.of(ARCHIVE_FILE))) {
+            throw new IllegalStateException("The application exited without writing " + ARCHIVE_FILE);
+        }
+    }
+
+    private void runRound() throws IOException, InterruptedException {
+        String id = objectMapper.readTree(expect(201, post(Endpoints.BANK_ACCOUNT_CREATE_ACCOUNT_ENDPOINT,
+                new CreateBankAccountRequest("Training", "Run", BigDecimal.valueOf(1000)), null))).get("id").asText();
+        expect(201, post(Endpoints.BANK_ACCOUNT_BULK_CREATE_ACCOUNT_ENDPOINT,
+                List.of(new CreateBankAccountRequest("Training", "Bulk", BigDecimal.TEN)), null));
+        expect(200, get(withId(Endpoints.BANK_ACCOUNT_GET_BALANCE_ENDPOINT, id)));
+
+        String exchangeEndpoint = withId(Endpoints.BANK_ACCOUNT_EXCHANGE_CURRENCY_ENDPOINT, id);
+        ExchangeCurrencyRequest exchange = new ExchangeCurrencyRequest(ExchangeType.PLN_TO_USD, BigDecimal.valueOf(100));
+        String idempotencyKey = UUID.randomUUID().toString();
+        expect(200, post(exchangeEndpoint, exchange, idempotencyKey));
+        expect(200, post(exchangeEndpoint, exchange, idempotencyKey));
+        expect(200, post(exchangeEndpoint, new ExchangeCurrencyRequest(ExchangeType.USD_TO_PLN, BigDecimal.ONE), null));
+        expect(200, get(withId(Endpoints.BANK_ACCOUNT_GET_BALANCE_ENDPOINT, id)));
+
+        // rejected requests: insufficient funds and an unknown account
+        post(exchangeEndpoint, new ExchangeCurrencyRequest(ExchangeType.PLN_TO_USD, BigDecimal.valueOf(1_000_000)), null);
+        get(withId(Endpoints.BANK_ACCOUNT_GET_BALANCE_ENDPOINT, UUID.randomUUID().toString()));
+    }
+
+    private HttpResponse<String> post(String path, Object body, String idempotencyKey) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        if (idempotencyKey != null) {
+            request.header(IdempotencyService.IDEMPOTENCY_KEY_HEADER, idempotencyKey);
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String expect(int status, HttpResponse<String> response) {
+        if (response.statusCode() != status) {
+            throw new IllegalStateException(response.request().uri() + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    private static String withId(String endpoint, String id) {
+        return endpoint.replace("{id}", id);
+    }
+
+    private void awaitReady(Process application) throws InterruptedException {
+        HttpRequest health = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health")).GET().build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!application.isAlive()) {
+                throw new IllegalStateException("Application exited with code " + application.exitValue() + " before becoming ready");
+            }
+            try {
+                if (httpClient.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException ignored) {
+                // not listening yet
+            }
+            Thread.sleep(200);
+        }
+        throw new IllegalStateException("Application did not become ready within " + STARTUP_TIMEOUT);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void serveRate(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, NBP_RATE_BODY.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(NBP_RATE_BODY);
+        }
+    }
+}